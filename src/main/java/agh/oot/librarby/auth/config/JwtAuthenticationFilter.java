@@ -1,12 +1,17 @@
 package agh.oot.librarby.auth.config;
 
 import agh.oot.librarby.auth.model.CustomUserDetails;
+import agh.oot.librarby.auth.model.VerifiedToken;
+import agh.oot.librarby.auth.service.TokenVersionRegistry;
 import io.micrometer.common.lang.NonNull;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -15,16 +20,23 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final boolean statelessAuthentication;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService,
+                                   TokenVersionRegistry tokenVersionRegistry,
+                                   @Value("${app.security.stateless-jwt.enabled:false}") boolean statelessAuthentication) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.statelessAuthentication = statelessAuthentication;
     }
 
     @Override
@@ -41,37 +53,39 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             final String jwt = authHeader.substring(7); // Usuwamy "Bearer "
-            final String username = jwtService.extractSubject(jwt);
-            final String idString = jwtService.extractId(jwt);
+            // Jedna weryfikacja podpisu i ważności na żądanie (albo trafienie w cache)
+            final VerifiedToken token = jwtService.verify(jwt);
 
-            if (username == null || idString == null || SecurityContextHolder.getContext().getAuthentication() != null) {
+            if (SecurityContextHolder.getContext().getAuthentication() != null) {
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            final Long id = Long.parseLong(idString);
+            CustomUserDetails customUserDetails = statelessAuthentication && token.isSelfContained()
+                    ? fromClaims(token)
+                    : null;
 
-            // Pobieramy użytkownika z bazy TYLKO do walidacji, że użytkownik nadal istnieje i ma te same uprawnienia
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (customUserDetails == null) {
+                // Pobieramy użytkownika z bazy TYLKO do walidacji, że użytkownik nadal istnieje i ma te same uprawnienia
+                UserDetails userDetails = userDetailsService.loadUserByUsername(token.subject());
 
-            // Tworzymy CustomUserDetails z ID z tokenu (wszystkie dane powinny być spójne)
-            CustomUserDetails customUserDetails = new CustomUserDetails(
-                    id,
-                    userDetails.getUsername(),
-                    userDetails.getPassword(),
-                    userDetails.getAuthorities()
-            );
-
-            if (jwtService.isTokenValid(jwt, customUserDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        customUserDetails,
-                        null,
-                        customUserDetails.getAuthorities()
+                // Tworzymy CustomUserDetails z ID z tokenu (wszystkie dane powinny być spójne)
+                customUserDetails = new CustomUserDetails(
+                        token.userId(),
+                        userDetails.getUsername(),
+                        userDetails.getPassword(),
+                        userDetails.getAuthorities()
                 );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
+
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    customUserDetails,
+                    null,
+                    customUserDetails.getAuthorities()
+            );
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         } catch (Exception e) {
             // W przypadku błędu parsowania tokenu, logujemy i kontynuujemy bez uwierzytelnienia
             logger.error("Cannot set user authentication: {}", e);
@@ -79,4 +93,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Builds the principal from the token alone if its version is known to be current.
+     *
+     * @return the principal, or {@code null} if the database has to be consulted
+     * @throws BadCredentialsException if the token has been revoked
+     */
+    private CustomUserDetails fromClaims(VerifiedToken token) {
+        return switch (tokenVersionRegistry.check(token.userId(), token.tokenVersion())) {
+            case CURRENT -> new CustomUserDetails(
+                    token.userId(),
+                    token.subject(),
+                    "",
+                    List.of(new SimpleGrantedAuthority("ROLE_" + token.role())),
+                    token.tokenVersion()
+            );
+            case REVOKED -> throw new BadCredentialsException("Token has been revoked");
+            case UNKNOWN -> null;
+        };
+    }
 }
@@ -1,57 +1,54 @@
 package agh.oot.librarby.auth.config;
 
 import agh.oot.librarby.auth.model.CustomUserDetails;
+import agh.oot.librarby.auth.model.VerifiedToken;
+import agh.oot.librarby.cache.BoundedCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
 
 /**
  * Service for generating and validating JWT tokens.
  * Handles token creation, parsing, and validation for user authentication.
+ *
+ * <p>The signing key and parser are built once. Verified tokens are remembered (keyed by their SHA-256 hash,
+ * never the token itself) until they expire, so a client reusing its token pays for the signature check once.
  */
 @Service
 public class JwtService {
     // TODO: Move to application.properties or environment variable in production
     private static final String SECRET_KEY = "bardzoTajnyKluczKtoryPowinienBycdlugiIskomplikowany123";
     private static final long TOKEN_VALIDITY_MS = 1000 * 60 * 60 * 24; // 24 hours
+    private static final String ROLE_PREFIX = "ROLE_";
 
-    /**
-     * Extracts the subject (username) from the JWT token.
-     *
-     * @param token JWT token
-     * @return username from the token
-     */
-    public String extractSubject(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final BoundedCache<String, VerifiedToken> tokenCache;
 
-    /**
-     * Extracts the user ID from the JWT token.
-     *
-     * @param token JWT token
-     * @return user ID as String, or null if not present
-     */
-    public String extractId(String token) {
-        return extractClaim(token, claims -> {
-            Object id = claims.get("id");
-            if (id == null) {
-                return null;
-            }
-            // Handle both Integer and Long types
-            if (id instanceof Number) {
-                return String.valueOf(((Number) id).longValue());
-            }
-            return String.valueOf(id);
-        });
+    public JwtService(BoundedCache<String, VerifiedToken> tokenCache) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.tokenCache = tokenCache;
     }
 
     /**
@@ -61,61 +58,70 @@ public class JwtService {
      * @return generated JWT token
      */
     public String generateToken(CustomUserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("id", userDetails.getId());
+        claims.put("ver", userDetails.getTokenVersion());
+        userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith(ROLE_PREFIX))
+                .findFirst()
+                .ifPresent(authority -> claims.put("role", authority.substring(ROLE_PREFIX.length())));
+
         return Jwts.builder()
                 .setSubject(userDetails.getUsername())
-                .addClaims(Map.of("id", userDetails.getId()))
+                .addClaims(claims)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + TOKEN_VALIDITY_MS))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     /**
-     * Validates if the token is valid for the given user.
+     * Verifies the token signature and expiry and returns its claims.
      *
-     * @param token       JWT token
-     * @param userDetails user details to validate against
-     * @return true if token is valid and not expired, false otherwise
+     * @param token JWT token
+     * @return verified claims
+     * @throws JwtException if the token is malformed, tampered with, expired or lacks the required claims
      */
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractSubject(token);
-        return (username != null && username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
+    public VerifiedToken verify(String token) {
+        String cacheKey = hash(token);
+        Instant now = Instant.now();
 
-    /**
-     * Extracts a specific claim from the JWT token.
-     *
-     * @param token          JWT token
-     * @param claimsResolver function to extract the specific claim
-     * @param <T>            type of the claim
-     * @return extracted claim value
-     */
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claimsResolver.apply(claims);
+        Optional<VerifiedToken> cached = tokenCache.get(cacheKey);
+        if (cached.isPresent() && !cached.get().isExpired(now)) {
+            return cached.get();
+        }
+
+        VerifiedToken verified = parse(token);
+        Duration remaining = Duration.between(now, verified.expiresAt());
+        if (!remaining.isNegative() && !remaining.isZero()) {
+            tokenCache.put(cacheKey, verified, remaining);
+        }
+        return verified;
     }
 
-    /**
-     * Checks if the token has expired.
-     *
-     * @param token JWT token
-     * @return true if token is expired, false otherwise
-     */
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    private VerifiedToken parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+
+        Object id = claims.get("id");
+        if (claims.getSubject() == null || claims.getExpiration() == null || id == null) {
+            throw new JwtException("Token is missing required claims");
+        }
+        // Handle both Integer and Long types
+        Long userId = id instanceof Number number ? number.longValue() : Long.valueOf(String.valueOf(id));
+        Object version = claims.get("ver");
+        Integer tokenVersion = version instanceof Number number ? number.intValue() : null;
+
+        return new VerifiedToken(claims.getSubject(), userId, claims.get("role", String.class), tokenVersion,
+                claims.getExpiration().toInstant());
     }
 
-    /**
-     * Retrieves the signing key for JWT token validation.
-     *
-     * @return the signing key
-     */
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
@@ -12,19 +12,30 @@ public class CustomUserDetails implements UserDetails {
     private final String username;
     private final String password;
     private final Collection<? extends GrantedAuthority> authorities;
+    private final int tokenVersion;
 
     public CustomUserDetails(Long id, String username, String password,
                              Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, password, authorities, 0);
+    }
+
+    public CustomUserDetails(Long id, String username, String password,
+                             Collection<? extends GrantedAuthority> authorities, int tokenVersion) {
         this.id = id;
         this.username = username;
         this.password = password;
         this.authorities = authorities;
+        this.tokenVersion = tokenVersion;
     }
 
     public Long getId() {
         return id;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -0,0 +1,26 @@
+package agh.oot.librarby.auth.model;
+
+import java.time.Instant;
+
+/**
+ * Claims of a JWT whose signature and expiry have already been checked.
+ *
+ * @param subject      username the token was issued to
+ * @param userId       id of the user account
+ * @param role         role name (without the {@code ROLE_} prefix), {@code null} for tokens issued without it
+ * @param tokenVersion account token version at issue time, {@code null} for tokens issued without it
+ * @param expiresAt    moment the token stops being valid
+ */
+public record VerifiedToken(String subject, Long userId, String role, Integer tokenVersion, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+
+    /**
+     * @return {@code true} if the token carries everything needed to authenticate without a database lookup
+     */
+    public boolean isSelfContained() {
+        return role != null && tokenVersion != null;
+    }
+}
@@ -1,6 +1,8 @@
 package agh.oot.librarby.auth.service;
 
 import agh.oot.librarby.auth.model.CustomUserDetails;
+import agh.oot.librarby.cache.BoundedCache;
+import agh.oot.librarby.user.event.UserAccountChangedEvent;
 import agh.oot.librarby.user.repository.UserAccountRepository;
 import agh.oot.librarby.user.model.UserAccount;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -9,22 +11,43 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.Collections;
 
+/**
+ * Loads user accounts for authentication.
+ *
+ * <p>Results are cached by username. Entries of an account are dropped as soon as a change to it
+ * (username, role, deletion) commits, so stale authorities never outlive the change.
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserAccountRepository userAccountRepository;
+    private final BoundedCache<String, CustomUserDetails> userDetailsCache;
 
-    public CustomUserDetailsService(UserAccountRepository userAccountRepository) {
+    public CustomUserDetailsService(UserAccountRepository userAccountRepository,
+                                    BoundedCache<String, CustomUserDetails> userDetailsCache) {
         this.userAccountRepository = userAccountRepository;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Override
     @Transactional(readOnly = true)
     public CustomUserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userDetailsCache.getOrLoad(username, this::loadFromDatabase);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        userDetailsCache.invalidate(event.oldUsername());
+        // the account may also be cached under its new username
+        userDetailsCache.invalidateIf(details -> event.userId().equals(details.getId()));
+    }
 
+    private CustomUserDetails loadFromDatabase(String username) {
         UserAccount account = userAccountRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
@@ -35,7 +58,8 @@ public class CustomUserDetailsService implements UserDetailsService {
                 account.getId(),
                 account.getUsername(),
                 account.getPassword(),
-                Collections.singletonList(authority)
+                Collections.singletonList(authority),
+                account.getTokenVersion()
         );
     }
 }
@@ -0,0 +1,118 @@
+package agh.oot.librarby.auth.service;
+
+import agh.oot.librarby.user.event.UserAccountChangedEvent;
+import agh.oot.librarby.user.repository.UserAccountRepository;
+import agh.oot.librarby.user.repository.UserTokenVersionView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * In-memory snapshot of the current token version of every user account, used to validate
+ * self-contained JWTs without a database round trip.
+ *
+ * <p>The snapshot is two parallel sorted arrays (ids and versions), about 12 bytes per account.
+ * It is reloaded periodically, so changes made by other application instances take effect within one
+ * refresh interval; changes made by this instance are applied as soon as they commit.
+ *
+ * <p>Only used when stateless authentication is enabled ({@code app.security.stateless-jwt.enabled}).
+ */
+@Service
+public class TokenVersionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenVersionRegistry.class);
+
+    public enum Status {
+        /** Token version matches the account - the token may be trusted as is. */
+        CURRENT,
+        /** Account has a newer token version - the token must be rejected. */
+        REVOKED,
+        /** Account is not in the snapshot (created or deleted since the last refresh) - ask the database. */
+        UNKNOWN
+    }
+
+    private record Snapshot(long[] ids, int[] versions) {
+        static final Snapshot EMPTY = new Snapshot(new long[0], new int[0]);
+    }
+
+    private final UserAccountRepository userAccountRepository;
+    private final boolean enabled;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public TokenVersionRegistry(UserAccountRepository userAccountRepository,
+                                @Value("${app.security.stateless-jwt.enabled:false}") boolean enabled) {
+        this.userAccountRepository = userAccountRepository;
+        this.enabled = enabled;
+    }
+
+    public Status check(Long userId, int tokenVersion) {
+        Snapshot current = snapshot;
+        int index = Arrays.binarySearch(current.ids(), userId);
+        if (index < 0) {
+            return Status.UNKNOWN;
+        }
+
+        int knownVersion = current.versions()[index];
+        if (tokenVersion == knownVersion) {
+            return Status.CURRENT;
+        }
+        // a newer token than the snapshot means the snapshot is behind
+        return tokenVersion < knownVersion ? Status.REVOKED : Status.UNKNOWN;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${app.security.stateless-jwt.refresh-interval:PT30S}",
+            fixedDelayString = "${app.security.stateless-jwt.refresh-interval:PT30S}"
+    )
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+
+        List<UserTokenVersionView> rows = userAccountRepository.findAllTokenVersions();
+        long[] ids = new long[rows.size()];
+        int[] versions = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            ids[i] = rows.get(i).getId();
+            versions[i] = rows.get(i).getTokenVersion();
+        }
+
+        snapshot = new Snapshot(ids, versions);
+        log.debug("TokenVersionRegistry: loaded token versions of {} accounts", ids.length);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onUserAccountChanged(UserAccountChangedEvent event) {
+        Snapshot current = snapshot;
+        int index = Arrays.binarySearch(current.ids(), event.userId());
+        if (index < 0) {
+            // unknown accounts are checked against the database anyway
+            return;
+        }
+
+        if (event.deleted()) {
+            long[] ids = new long[current.ids().length - 1];
+            int[] versions = new int[ids.length];
+            System.arraycopy(current.ids(), 0, ids, 0, index);
+            System.arraycopy(current.ids(), index + 1, ids, index, ids.length - index);
+            System.arraycopy(current.versions(), 0, versions, 0, index);
+            System.arraycopy(current.versions(), index + 1, versions, index, ids.length - index);
+            snapshot = new Snapshot(ids, versions);
+        } else {
+            int[] versions = current.versions().clone();
+            versions[index] = event.tokenVersion();
+            snapshot = new Snapshot(current.ids(), versions);
+        }
+    }
+}
@@ -8,10 +8,12 @@ import agh.oot.librarby.author.mapper.AuthorResponseMapper;
 import agh.oot.librarby.author.mapper.MultipleAuthorsResponseMapper;
 import agh.oot.librarby.author.model.Author;
 import agh.oot.librarby.author.repository.AuthorRepository;
+import agh.oot.librarby.book.dto.BookResponse;
 import agh.oot.librarby.book.dto.MultipleBooksResponse;
 import agh.oot.librarby.book.mapper.MultipleBooksResponseMapper;
 import agh.oot.librarby.book.model.Book;
 import agh.oot.librarby.book.repository.BookRepository;
+import agh.oot.librarby.cache.BoundedCache;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -30,19 +32,25 @@ public class AuthorServiceImpl implements AuthorService {
     private final MultipleAuthorsResponseMapper multipleAuthorsResponseMapper;
     private final BookRepository bookRepository;
     private final MultipleBooksResponseMapper multipleBooksMapper;
+    private final BoundedCache<Long, AuthorResponse> authorCache;
+    private final BoundedCache<Long, BookResponse> bookCache;
 
     public AuthorServiceImpl(
             AuthorRepository authorRepository,
             AuthorResponseMapper authorResponseMapper,
             MultipleAuthorsResponseMapper multipleAuthorsResponseMapper,
             BookRepository bookRepository,
-            MultipleBooksResponseMapper multipleBooksMapper
+            MultipleBooksResponseMapper multipleBooksMapper,
+            BoundedCache<Long, AuthorResponse> authorCache,
+            BoundedCache<Long, BookResponse> bookCache
     ) {
         this.authorRepository = authorRepository;
         this.authorResponseMapper = authorResponseMapper;
         this.multipleAuthorsResponseMapper = multipleAuthorsResponseMapper;
         this.bookRepository = bookRepository;
         this.multipleBooksMapper = multipleBooksMapper;
+        this.authorCache = authorCache;
+        this.bookCache = bookCache;
     }
 
     @Override
@@ -61,12 +69,14 @@ public class AuthorServiceImpl implements AuthorService {
 
     @Override
     public AuthorResponse getAuthorById(Long authorId) {
-        Author author = authorRepository.findById(authorId)
-                .orElseThrow(() ->
-                        new ResponseStatusException(HttpStatus.NOT_FOUND, "Author not found")
-                );
-
-        return authorResponseMapper.toDto(author);
+        return authorCache.getOrLoad(authorId, id -> {
+            Author author = authorRepository.findById(id)
+                    .orElseThrow(() ->
+                            new ResponseStatusException(HttpStatus.NOT_FOUND, "Author not found")
+                    );
+
+            return authorResponseMapper.toDto(author);
+        });
     }
 
     // TODO: add more filtering options (e.g., by genre, age rating)
@@ -123,6 +133,9 @@ public class AuthorServiceImpl implements AuthorService {
         author.setLastName(request.lastName() == null ? null : request.lastName().trim());
 
         Author saved = authorRepository.save(author);
+        authorCache.invalidateAfterCommit(authorId);
+        // cached books embed their authors
+        bookCache.invalidateIfAfterCommit(book -> book.authors().stream().anyMatch(a -> authorId.equals(a.id())));
         return authorResponseMapper.toDto(saved);
     }
 
@@ -137,6 +150,7 @@ public class AuthorServiceImpl implements AuthorService {
         try {
             authorRepository.delete(author);
             authorRepository.flush(); // force FK constraint check inside this transaction
+            authorCache.invalidateAfterCommit(authorId);
         } catch (DataIntegrityViolationException ex) {
             throw new ResponseStatusException(
                     HttpStatus.CONFLICT,
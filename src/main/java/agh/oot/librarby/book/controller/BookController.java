@@ -39,7 +39,8 @@ public class BookController {
         this.bookService = bookService;
     }
 
-    @Operation(summary = "List books", description = "Returns books. Optional query params allow basic filtering.")
+    @Operation(summary = "List books", description = "Returns a page of books ordered by ID. Optional query params allow basic filtering; "
+            + "pass nextCursor from the response as cursor to get the following page.")
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
@@ -64,12 +65,58 @@ public class BookController {
             @RequestParam(required = false) Long authorId,
 
             @Parameter(description = "Filter by age rating", example = "ADULT")
-            @RequestParam(required = false) AgeRating ageRating
+            @RequestParam(required = false) AgeRating ageRating,
+
+            @Parameter(description = "Page size (default 20, max 100)", example = "20")
+            @RequestParam(required = false) Integer limit,
+
+            @Parameter(description = "Opaque cursor returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor
     ) {
-        MultipleBooksResponse body = bookService.getBooks(new BookQueryParams(title, authorId, genre, ageRating));
+        MultipleBooksResponse body = bookService.getBooks(
+                new BookQueryParams(title, authorId, genre, ageRating, limit, cursor));
         return ResponseEntity.ok(body);
     }
 
+    @Operation(
+            summary = "Count books per facet",
+            description = "Returns book counts per genre and age rating for the given filters. "
+                    + "Each dimension is counted without its own filter, so the counts show what selecting another value would return."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Facet counts retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = BookFacetsResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid query parameter(s)",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Book index is still being built after startup",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @GetMapping("/facets")
+    public ResponseEntity<BookFacetsResponse> getBookFacets(
+            @Parameter(description = "Filter by title substring (case-insensitive)", example = "gatsby")
+            @RequestParam(required = false) String title,
+
+            @Parameter(description = "Filter by genre", example = "FICTION")
+            @RequestParam(required = false) Genre genre,
+
+            @Parameter(description = "Filter by author ID", example = "5")
+            @RequestParam(required = false) Long authorId,
+
+            @Parameter(description = "Filter by age rating", example = "ADULT")
+            @RequestParam(required = false) AgeRating ageRating
+    ) {
+        return ResponseEntity.ok(bookService.getBookFacets(new BookQueryParams(title, authorId, genre, ageRating)));
+    }
+
     @Operation(summary = "Get book by ID")
     @ApiResponses({
             @ApiResponse(
@@ -0,0 +1,21 @@
+package agh.oot.librarby.book.dto;
+
+import agh.oot.librarby.book.model.AgeRating;
+import agh.oot.librarby.book.model.Genre;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+@Schema(description = "Book counts per genre and age rating for the current filter")
+public record BookFacetsResponse(
+        @Schema(description = "Number of books matching all filters", example = "42")
+        long total,
+
+        @Schema(description = "Number of books per genre, counted without the genre filter",
+                example = "{\"FANTASY\": 12, \"FICTION\": 30}")
+        Map<Genre, Long> genres,
+
+        @Schema(description = "Number of books per age rating, counted without the age rating filter",
+                example = "{\"EVERYONE\": 20, \"ADULT\": 22}")
+        Map<AgeRating, Long> ageRatings
+) {}
@@ -4,7 +4,7 @@ import agh.oot.librarby.book.model.AgeRating;
 import agh.oot.librarby.book.model.Genre;
 import io.swagger.v3.oas.annotations.media.Schema;
 
-@Schema(description = "Optional query parameters for filtering books")
+@Schema(description = "Optional query parameters for filtering and paging books")
 public record BookQueryParams(
         @Schema(description = "Substring match for title", example = "hobbit")
         String title,
@@ -16,5 +16,15 @@ public record BookQueryParams(
         Genre genre,
 
         @Schema(description = "Filter by age rating", example = "EVERYONE")
-        AgeRating ageRating
-) {}
+        AgeRating ageRating,
+
+        @Schema(description = "Maximum number of books to return", example = "20")
+        Integer limit,
+
+        @Schema(description = "Opaque cursor returned as nextCursor by the previous page")
+        String cursor
+) {
+    public BookQueryParams(String title, Long authorId, Genre genre, AgeRating ageRating) {
+        this(title, authorId, genre, ageRating, null, null);
+    }
+}
@@ -7,5 +7,12 @@ import java.util.List;
 @Schema(description = "Wrapper response containing a list of books")
 public record MultipleBooksResponse(
         @Schema(description = "List of books")
-        List<BookResponse> books
-) {}
+        List<BookResponse> books,
+
+        @Schema(description = "Cursor for the next page, null if this is the last page", nullable = true)
+        String nextCursor
+) {
+    public MultipleBooksResponse(List<BookResponse> books) {
+        this(books, null);
+    }
+}
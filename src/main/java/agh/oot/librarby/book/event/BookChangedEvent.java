@@ -0,0 +1,50 @@
+package agh.oot.librarby.book.event;
+
+import agh.oot.librarby.author.model.Author;
+import agh.oot.librarby.book.model.AgeRating;
+import agh.oot.librarby.book.model.Book;
+import agh.oot.librarby.book.model.Genre;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Published by the book service whenever a book is created, modified or deleted.
+ *
+ * <p>In-memory catalog structures listen for this event after the surrounding transaction
+ * commits, so a rolled back change never leaks into them.
+ *
+ * @param bookId    identifier of the affected book
+ * @param title     current title, {@code null} when the book was deleted
+ * @param genres    current genres, empty when the book was deleted
+ * @param ageRating current age rating, {@code null} when the book was deleted
+ * @param authorIds identifiers of the current authors, empty when the book was deleted
+ * @param deleted   {@code true} if the book no longer exists
+ */
+public record BookChangedEvent(
+        Long bookId,
+        String title,
+        Set<Genre> genres,
+        AgeRating ageRating,
+        Set<Long> authorIds,
+        boolean deleted
+) {
+
+    public BookChangedEvent {
+        Objects.requireNonNull(bookId, "bookId must not be null");
+        genres = genres != null ? Set.copyOf(genres) : Set.of();
+        authorIds = authorIds != null ? Set.copyOf(authorIds) : Set.of();
+    }
+
+    public static BookChangedEvent saved(Book book) {
+        Set<Long> authorIds = book.getAuthors().stream()
+                .map(Author::getId)
+                .collect(Collectors.toSet());
+        return new BookChangedEvent(book.getId(), book.getTitle(), book.getGenres(), book.getAgeRating(), authorIds, false);
+    }
+
+    public static BookChangedEvent deleted(Long bookId) {
+        return new BookChangedEvent(bookId, null, null, null, null, true);
+    }
+}
@@ -1,9 +1,12 @@
 package agh.oot.librarby.book.model;
 
 import agh.oot.librarby.author.model.Author;
+import agh.oot.librarby.book.util.GenreSetConverter;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.Objects;
@@ -19,14 +22,11 @@ public class Book {
     @Column(nullable = false)
     private String title;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(
-            name = "book_genres",
-            joinColumns = @JoinColumn(name = "book_id")
-    )
-    @Enumerated(EnumType.STRING)
-    @Column(name = "genre")
-    private Set<Genre> genres = new HashSet<>();
+    // Stored as a bitmask, see GenreSetConverter
+    @Convert(converter = GenreSetConverter.class)
+    @ColumnDefault("0")
+    @Column(name = "genre_mask", nullable = false)
+    private Set<Genre> genres = EnumSet.noneOf(Genre.class);
 
 
     @Enumerated(EnumType.STRING)
@@ -48,7 +48,7 @@ public class Book {
                 AgeRating ageRating,
                 Set<Author> authors) {
         this.title = title;
-        this.genres = genres != null ? new HashSet<>(genres) : new HashSet<>();
+        this.genres = genres == null || genres.isEmpty() ? EnumSet.noneOf(Genre.class) : EnumSet.copyOf(genres);
         this.ageRating = ageRating;
         this.authors = authors != null ? new HashSet<>(authors) : new HashSet<>();
     }
@@ -66,11 +66,39 @@ public class Book {
     }
 
     public Set<Genre> getGenres() {
-        return new HashSet<>(genres);
+        return EnumSet.copyOf(genres);
     }
 
     public void setGenres(Set<Genre> genres) {
-        this.genres = genres != null ? new HashSet<>(genres) : new HashSet<>();
+        this.genres = genres == null || genres.isEmpty() ? EnumSet.noneOf(Genre.class) : EnumSet.copyOf(genres);
+    }
+
+    /**
+     * @return {@code true} if the genre was not assigned before
+     */
+    public boolean addGenre(Genre genre) {
+        Objects.requireNonNull(genre, "genre must not be null");
+        if (genres.contains(genre)) {
+            return false;
+        }
+        // replace rather than mutate, so the change is dirty-checked like any other basic value
+        EnumSet<Genre> updated = EnumSet.copyOf(genres);
+        updated.add(genre);
+        genres = updated;
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the genre was assigned before
+     */
+    public boolean removeGenre(Genre genre) {
+        if (genre == null || !genres.contains(genre)) {
+            return false;
+        }
+        EnumSet<Genre> updated = EnumSet.copyOf(genres);
+        updated.remove(genre);
+        genres = updated;
+        return true;
     }
 
     public AgeRating getAgeRating() {
@@ -2,6 +2,7 @@ package agh.oot.librarby.book.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.Objects;
 
@@ -22,6 +23,12 @@ public class ExactBookCopy {
     @Column(nullable = false)
     private CopyStatus status;
 
+    // Bumped on every update; a status change based on a stale read fails instead of overwriting
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     protected ExactBookCopy() {
     }
 
@@ -51,6 +58,10 @@ public class ExactBookCopy {
         this.status = status;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     // Equals and hashCode based on id (JPA entity identity)
     @Override
     public boolean equals(Object o) {
@@ -0,0 +1,20 @@
+package agh.oot.librarby.book.repository;
+
+import agh.oot.librarby.book.model.AgeRating;
+import agh.oot.librarby.book.model.Genre;
+
+import java.util.Set;
+
+/**
+ * One (book, author) combination used to build the in-memory facet index.
+ * The author is {@code null} for books that have none.
+ */
+public interface BookFacetView {
+    Long getBookId();
+
+    AgeRating getAgeRating();
+
+    Set<Genre> getGenres();
+
+    Long getAuthorId();
+}
@@ -2,13 +2,14 @@ package agh.oot.librarby.book.repository;
 
 import agh.oot.librarby.book.model.AgeRating;
 import agh.oot.librarby.book.model.Book;
-import agh.oot.librarby.book.model.Genre;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,14 +40,74 @@ public interface BookRepository extends JpaRepository<Book, Long> {
         from Book b left join b.authors a 
         where 
             (:title is null or lower(b.title) like lower(concat('%', :title, '%'))) 
-            and (:genre is null or :genre member of b.genres) 
+            and (:genreBit is null or bitand(b.genres, :genreBit) <> 0) 
             and (:authorId is null or a.id = :authorId) 
             and (:ageRating is null or b.ageRating = :ageRating)
     """)
     List<Book> findByFiltered(
             @Param("title") String title,
-            @Param("genre") Genre genre,
+            @Param("genreBit") Long genreBit,
             @Param("authorId") Long authorId,
             @Param("ageRating") AgeRating ageRating
     );
+
+    /**
+     * Keyset page of book ids matching the filters, ordered by id.
+     *
+     * <p>Only ids are paged here: limiting a query that fetches the {@code authors} collection would
+     * make Hibernate paginate in memory. The page itself is loaded with {@link #findByIdIn}.
+     */
+    @Query("""
+        select b.id
+        from Book b
+        where
+            (:afterId is null or b.id > :afterId)
+            and (:title is null or lower(b.title) like lower(concat('%', :title, '%')))
+            and (:genreBit is null or bitand(b.genres, :genreBit) <> 0)
+            and (:authorId is null or exists (select a.id from b.authors a where a.id = :authorId))
+            and (:ageRating is null or b.ageRating = :ageRating)
+        order by b.id
+    """)
+    List<Long> findIdPage(
+            @Param("afterId") Long afterId,
+            @Param("title") String title,
+            @Param("genreBit") Long genreBit,
+            @Param("authorId") Long authorId,
+            @Param("ageRating") AgeRating ageRating,
+            Pageable pageable
+    );
+
+    /**
+     * Same as {@link #findIdPage}, but restricted to ids already matched by the in-memory title index
+     * instead of a {@code LIKE '%...%'} scan over the title column.
+     */
+    @Query("""
+        select b.id
+        from Book b
+        where
+            b.id in :ids
+            and (:genreBit is null or bitand(b.genres, :genreBit) <> 0)
+            and (:authorId is null or exists (select a.id from b.authors a where a.id = :authorId))
+            and (:ageRating is null or b.ageRating = :ageRating)
+        order by b.id
+    """)
+    List<Long> findIdPageWithinIds(
+            @Param("ids") Collection<Long> ids,
+            @Param("genreBit") Long genreBit,
+            @Param("authorId") Long authorId,
+            @Param("ageRating") AgeRating ageRating,
+            Pageable pageable
+    );
+
+    @EntityGraph(attributePaths = "authors")
+    List<Book> findByIdIn(Collection<Long> ids);
+
+    @Query("select b.id as id, b.title as title from Book b")
+    List<BookTitleView> findAllTitles();
+
+    @Query("""
+        select b.id as bookId, b.ageRating as ageRating, b.genres as genres, a.id as authorId
+        from Book b left join b.authors a
+    """)
+    List<BookFacetView> findAllFacets();
 }
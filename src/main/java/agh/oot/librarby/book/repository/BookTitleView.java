@@ -0,0 +1,11 @@
+package agh.oot.librarby.book.repository;
+
+/**
+ * Lightweight projection of a book used to (re)build in-memory search structures
+ * without hydrating full {@code Book} entities.
+ */
+public interface BookTitleView {
+    Long getId();
+
+    String getTitle();
+}
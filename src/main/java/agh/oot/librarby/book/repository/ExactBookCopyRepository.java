@@ -2,9 +2,15 @@ package agh.oot.librarby.book.repository;
 
 import agh.oot.librarby.book.model.BookEdition;
 import agh.oot.librarby.book.model.ExactBookCopy;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface ExactBookCopyRepository extends JpaRepository<ExactBookCopy, Long> {
     boolean existsByBookEdition(BookEdition bookEdition);
-}
 
+    @EntityGraph(attributePaths = {"bookEdition", "bookEdition.book"})
+    List<ExactBookCopy> findByIdIn(Collection<Long> ids);
+}
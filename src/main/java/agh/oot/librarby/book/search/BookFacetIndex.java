@@ -0,0 +1,278 @@
+package agh.oot.librarby.book.search;
+
+import agh.oot.librarby.book.event.BookChangedEvent;
+import agh.oot.librarby.book.model.AgeRating;
+import agh.oot.librarby.book.model.Genre;
+import agh.oot.librarby.book.repository.BookFacetView;
+import agh.oot.librarby.book.repository.BookRepository;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet index keeping one compressed bitmap of book ids per {@link Genre},
+ * per {@link AgeRating} and per author id.
+ *
+ * <p>Filters are answered by intersecting bitmaps, so the database only has to load the final page
+ * of books. The same bitmaps give facet counts for the current filter in a single pass.
+ *
+ * <p>Like {@link BookTitleIndex}, the index is rebuilt once the application is ready, kept current by
+ * {@link BookChangedEvent}s published after commit and rebuilt periodically to pick up books changed
+ * on other nodes. Until it is built (or if a book id ever
+ * exceeds the {@code int} range of the bitmaps) queries return {@link Optional#empty()} and callers
+ * fall back to the database.
+ */
+@Component
+public class BookFacetIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BookFacetIndex.class);
+
+    private final BookRepository bookRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final RoaringBitmap allBooks = new RoaringBitmap();
+    private final Map<Genre, RoaringBitmap> byGenre = new EnumMap<>(Genre.class);
+    private final Map<AgeRating, RoaringBitmap> byAgeRating = new EnumMap<>(AgeRating.class);
+    private final Map<Long, RoaringBitmap> byAuthor = new HashMap<>();
+    // book id -> facets it is currently indexed under (needed to unindex on update/delete)
+    private final Map<Integer, IndexedFacets> facetsByBook = new HashMap<>();
+
+    private volatile boolean ready;
+    private boolean overflowed;
+
+    /**
+     * Number of books per facet value. Each dimension is counted with every filter applied except
+     * its own, so the client can tell how many books it would get by switching to another value.
+     *
+     * @param total      number of books matching all filters
+     * @param genres     non-zero book counts per genre
+     * @param ageRatings non-zero book counts per age rating
+     */
+    public record FacetCounts(long total, Map<Genre, Long> genres, Map<AgeRating, Long> ageRatings) {
+    }
+
+    private record IndexedFacets(Set<Genre> genres, AgeRating ageRating, Set<Long> authorIds) {
+    }
+
+    public BookFacetIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${app.books.facet-index.rebuild-interval:PT5M}",
+            fixedDelayString = "${app.books.facet-index.rebuild-interval:PT5M}"
+    )
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            overflowed = false;
+
+            Map<Long, IndexedFacets> facets = new HashMap<>();
+            for (BookFacetView row : bookRepository.findAllFacets()) {
+                IndexedFacets entry = facets.computeIfAbsent(row.getBookId(),
+                        id -> new IndexedFacets(row.getGenres() != null ? row.getGenres() : Set.of(), row.getAgeRating(), new HashSet<>()));
+                if (row.getAuthorId() != null) {
+                    entry.authorIds().add(row.getAuthorId());
+                }
+            }
+
+            facets.forEach(this::index);
+            ready = !overflowed;
+            if (ready) {
+                log.info("BookFacetIndex: indexed {} books ({} authors)", allBooks.getCardinality(), byAuthor.size());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            unindex(event.bookId());
+            if (!event.deleted()) {
+                index(event.bookId(), new IndexedFacets(event.genres(), event.ageRating(), event.authorIds()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds ids of books matching all given filters.
+     *
+     * @param genre      required genre, or {@code null}
+     * @param authorId   required author, or {@code null}
+     * @param ageRating  required age rating, or {@code null}
+     * @param restrictTo additional set of allowed ids (e.g. title matches), or {@code null}
+     * @return a new bitmap owned by the caller, or {@link Optional#empty()} if the index is not available
+     */
+    public Optional<RoaringBitmap> filter(Genre genre, Long authorId, AgeRating ageRating, RoaringBitmap restrictTo) {
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = intersect(base(authorId, restrictTo), byGenre(genre));
+            return Optional.of(intersect(result, byAgeRating(ageRating)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts books per genre and age rating for the given filters.
+     *
+     * @return the counts, or {@link Optional#empty()} if the index is not available
+     * @see FacetCounts
+     */
+    public Optional<FacetCounts> countFacets(Genre genre, Long authorId, AgeRating ageRating, RoaringBitmap restrictTo) {
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap base = base(authorId, restrictTo);
+            RoaringBitmap withGenre = intersect(base, byGenre(genre));
+            RoaringBitmap withAgeRating = intersect(base, byAgeRating(ageRating));
+
+            Map<Genre, Long> genres = new EnumMap<>(Genre.class);
+            byGenre.forEach((value, ids) -> putIfPositive(genres, value, RoaringBitmap.andCardinality(withAgeRating, ids)));
+
+            Map<AgeRating, Long> ageRatings = new EnumMap<>(AgeRating.class);
+            byAgeRating.forEach((value, ids) -> putIfPositive(ageRatings, value, RoaringBitmap.andCardinality(withGenre, ids)));
+
+            long total = intersect(withGenre, byAgeRating(ageRating)).getLongCardinality();
+            return Optional.of(new FacetCounts(total, genres, ageRatings));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code size} ids from {@code ids} that are greater than {@code afterId}, in ascending order.
+     */
+    public static List<Long> page(RoaringBitmap ids, Long afterId, int size) {
+        PeekableIntIterator iterator = ids.getIntIterator();
+        if (afterId != null) {
+            if (afterId >= Integer.MAX_VALUE) {
+                return List.of();
+            }
+            iterator.advanceIfNeeded((int) Math.max(afterId + 1, 0));
+        }
+
+        List<Long> page = new ArrayList<>(Math.min(size, ids.getCardinality()));
+        while (iterator.hasNext() && page.size() < size) {
+            page.add((long) iterator.next());
+        }
+        return page;
+    }
+
+    public static RoaringBitmap toBitmap(Collection<Long> ids) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        ids.forEach(id -> bitmap.add(Math.toIntExact(id)));
+        return bitmap;
+    }
+
+    private RoaringBitmap base(Long authorId, RoaringBitmap restrictTo) {
+        RoaringBitmap base = authorId != null
+                ? byAuthor.getOrDefault(authorId, new RoaringBitmap())
+                : allBooks;
+        return intersect(base, restrictTo);
+    }
+
+    private RoaringBitmap byGenre(Genre genre) {
+        return genre != null ? byGenre.getOrDefault(genre, new RoaringBitmap()) : null;
+    }
+
+    private RoaringBitmap byAgeRating(AgeRating ageRating) {
+        return ageRating != null ? byAgeRating.getOrDefault(ageRating, new RoaringBitmap()) : null;
+    }
+
+    // null means "no restriction"; always returns a fresh bitmap so indexed ones never escape the lock
+    private static RoaringBitmap intersect(RoaringBitmap ids, RoaringBitmap restriction) {
+        return restriction != null ? RoaringBitmap.and(ids, restriction) : ids.clone();
+    }
+
+    private static <K> void putIfPositive(Map<K, Long> counts, K key, long count) {
+        if (count > 0) {
+            counts.put(key, count);
+        }
+    }
+
+    private void index(Long bookId, IndexedFacets facets) {
+        if (overflowed) {
+            return;
+        }
+        if (bookId > Integer.MAX_VALUE) {
+            // bitmaps are int based - disable the index rather than return wrong results
+            log.warn("BookFacetIndex: book id {} exceeds the bitmap range, disabling the index", bookId);
+            ready = false;
+            overflowed = true;
+            clear();
+            return;
+        }
+
+        int id = bookId.intValue();
+        facetsByBook.put(id, facets);
+        allBooks.add(id);
+        facets.genres().forEach(genre -> byGenre.computeIfAbsent(genre, g -> new RoaringBitmap()).add(id));
+        if (facets.ageRating() != null) {
+            byAgeRating.computeIfAbsent(facets.ageRating(), r -> new RoaringBitmap()).add(id);
+        }
+        facets.authorIds().forEach(authorId -> byAuthor.computeIfAbsent(authorId, a -> new RoaringBitmap()).add(id));
+    }
+
+    private void unindex(Long bookId) {
+        if (bookId > Integer.MAX_VALUE) {
+            return;
+        }
+
+        int id = bookId.intValue();
+        IndexedFacets facets = facetsByBook.remove(id);
+        if (facets == null) {
+            return;
+        }
+
+        allBooks.remove(id);
+        facets.genres().forEach(genre -> removeFrom(byGenre, genre, id));
+        if (facets.ageRating() != null) {
+            removeFrom(byAgeRating, facets.ageRating(), id);
+        }
+        facets.authorIds().forEach(authorId -> removeFrom(byAuthor, authorId, id));
+    }
+
+    private static <K> void removeFrom(Map<K, RoaringBitmap> bitmaps, K key, int id) {
+        RoaringBitmap ids = bitmaps.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private void clear() {
+        allBooks.clear();
+        byGenre.clear();
+        byAgeRating.clear();
+        byAuthor.clear();
+        facetsByBook.clear();
+    }
+}
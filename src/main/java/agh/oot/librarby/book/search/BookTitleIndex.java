@@ -0,0 +1,207 @@
+package agh.oot.librarby.book.search;
+
+import agh.oot.librarby.book.event.BookChangedEvent;
+import agh.oot.librarby.book.repository.BookRepository;
+import agh.oot.librarby.book.repository.BookTitleView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over {@code Book.title}.
+ *
+ * <p>Titles are normalized (lower case, diacritics stripped) and split into alphanumeric tokens.
+ * A query is answered by intersecting, for every query token, the postings of all indexed tokens
+ * that contain it. Since any substring of a title splits into fragments of the title's own tokens,
+ * this yields a superset of the matching books, which is then narrowed down by checking the
+ * normalized title of each candidate.
+ *
+ * <p>The index is rebuilt from the database once the application is ready and kept current by
+ * {@link BookChangedEvent}s published after commit. Those events only reach the node that made the change,
+ * so the index is also rebuilt periodically to pick up books changed on other nodes. Until the first rebuild finishes,
+ * {@link #findMatches(String)} returns {@link Optional#empty()} and callers fall back to the database.
+ */
+@Component
+public class BookTitleIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BookTitleIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final BookRepository bookRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // token -> ids of books whose title contains that token
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    // book id -> tokens of its current title (needed to unindex on update/delete)
+    private final Map<Long, Set<String>> tokensByBook = new HashMap<>();
+    // book id -> normalized title (needed to confirm substring matches)
+    private final Map<Long, String> normalizedTitles = new HashMap<>();
+
+    private volatile boolean ready;
+
+    public BookTitleIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    /**
+     * Rebuilds the whole index from the database.
+     *
+     * <p>The write lock is held for the duration of the load so that concurrent change events
+     * are applied on top of the fresh snapshot instead of being overwritten by it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${app.books.title-index.rebuild-interval:PT5M}",
+            fixedDelayString = "${app.books.title-index.rebuild-interval:PT5M}"
+    )
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            tokensByBook.clear();
+            normalizedTitles.clear();
+
+            List<BookTitleView> titles = bookRepository.findAllTitles();
+            titles.forEach(view -> index(view.getId(), view.getTitle()));
+
+            ready = true;
+            log.info("BookTitleIndex: indexed {} books ({} distinct tokens)", titles.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            unindex(event.bookId());
+            if (!event.deleted()) {
+                index(event.bookId(), event.title());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Finds ids of books whose title contains {@code query}, ignoring case and diacritics
+     * (like the default MySQL collation).
+     *
+     * @param query raw title query as provided by the client
+     * @return matching ids (possibly empty), or {@link Optional#empty()} if the index cannot answer
+     *         the query (not built yet, or the query has no searchable characters)
+     */
+    public Optional<Set<Long>> findMatches(String query) {
+        if (!ready || query == null) {
+            return Optional.empty();
+        }
+
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Set<Long>> perToken = new ArrayList<>(queryTokens.size());
+            for (String token : queryTokens) {
+                Set<Long> ids = idsForTokenFragment(token);
+                if (ids.isEmpty()) {
+                    return Optional.of(Set.of());
+                }
+                perToken.add(ids);
+            }
+
+            // Intersect starting from the most selective token
+            perToken.sort(Comparator.comparingInt(Set::size));
+            Set<Long> result = new HashSet<>(perToken.getFirst());
+            for (int i = 1; i < perToken.size() && !result.isEmpty(); i++) {
+                result.retainAll(perToken.get(i));
+            }
+
+            String normalizedQuery = normalize(query.trim());
+            result.removeIf(id -> !normalizedTitles.get(id).contains(normalizedQuery));
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        // 'ł' has no canonical decomposition, so it survives NFD and has to be folded explicitly
+        return DIACRITICS.matcher(decomposed).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .replace('ł', 'l');
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(normalize(text)))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private Set<Long> idsForTokenFragment(String fragment) {
+        Set<Long> exact = postings.get(fragment);
+        Set<Long> ids = exact != null ? new HashSet<>(exact) : new HashSet<>();
+        // Infix matches require a dictionary scan; the dictionary holds distinct tokens,
+        // which is far smaller than the number of books
+        for (Map.Entry<String, Set<Long>> entry : postings.entrySet()) {
+            if (entry.getKey().length() > fragment.length() && entry.getKey().contains(fragment)) {
+                ids.addAll(entry.getValue());
+            }
+        }
+        return ids;
+    }
+
+    private void index(Long bookId, String title) {
+        Set<String> tokens = new HashSet<>(tokenize(title));
+        if (tokens.isEmpty()) {
+            return;
+        }
+        tokensByBook.put(bookId, tokens);
+        normalizedTitles.put(bookId, normalize(title));
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, t -> new HashSet<>()).add(bookId);
+        }
+    }
+
+    private void unindex(Long bookId) {
+        normalizedTitles.remove(bookId);
+        Set<String> tokens = tokensByBook.remove(bookId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Set<Long> ids = postings.get(token);
+            if (ids != null) {
+                ids.remove(bookId);
+                if (ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+}
@@ -42,11 +42,28 @@ public interface BookService {
      * {@code BookQueryParams} may be {@code null} to indicate that the corresponding filter
      * should be skipped.
      *
+     * <p>Results are ordered by id and paged with a cursor: pass the returned {@code nextCursor}
+     * to get the following page. It is {@code null} on the last page.
+     *
      * @param params filter and paging parameters (may be {@code null}).
      * @return a wrapper containing zero or more book representations.
+     * @throws IllegalArgumentException if the limit is not positive or the cursor is malformed
      */
     MultipleBooksResponse getBooks(BookQueryParams params);
 
+    /**
+     * Count books per genre and age rating for the given filters.
+     *
+     * <p>Each dimension is counted with all filters applied except its own, so that the counts show
+     * what switching to another genre or age rating would return. Paging fields are ignored.
+     *
+     * @param params filter parameters (may be {@code null}).
+     * @return total count and per-value counts (values with no books are omitted).
+     * @throws org.springframework.web.server.ResponseStatusException with {@code 503 SERVICE_UNAVAILABLE}
+     *         while the in-memory indexes are still being built at startup
+     */
+    BookFacetsResponse getBookFacets(BookQueryParams params);
+
     /**
      * Partially update a book.
      *
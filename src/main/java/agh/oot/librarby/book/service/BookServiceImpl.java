@@ -2,6 +2,7 @@ package agh.oot.librarby.book.service;
 
 import agh.oot.librarby.author.model.Author;
 import agh.oot.librarby.book.dto.*;
+import agh.oot.librarby.book.event.BookChangedEvent;
 import agh.oot.librarby.book.mapper.BookEditionResponseMapper;
 import agh.oot.librarby.book.mapper.BookResponseMapper;
 import agh.oot.librarby.book.model.*;
@@ -9,10 +10,18 @@ import agh.oot.librarby.author.repository.AuthorRepository;
 import agh.oot.librarby.book.repository.BookEditionRepository;
 import agh.oot.librarby.book.repository.BookRepository;
 import agh.oot.librarby.book.repository.ExactBookCopyRepository;
+import agh.oot.librarby.book.search.BookFacetIndex;
+import agh.oot.librarby.book.search.BookTitleIndex;
+import agh.oot.librarby.book.util.GenreSetConverter;
+import agh.oot.librarby.cache.BoundedCache;
+import agh.oot.librarby.pagination.CursorCodec;
 import agh.oot.librarby.publisher.dto.PublisherResponse;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,20 +35,34 @@ import java.util.stream.Stream;
 @Transactional
 public class BookServiceImpl implements BookService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_IN_LIST_SIZE = 1000;
+
     private final BookRepository bookRepository;
     private final AuthorRepository authorRepository;
     private final BookResponseMapper bookMapper;
     private final BookEditionRepository bookEditionRepository;
     private final BookEditionResponseMapper bookEditionResponseMapper;
+    private final BookTitleIndex bookTitleIndex;
+    private final BookFacetIndex bookFacetIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BoundedCache<Long, BookResponse> bookCache;
 
     public BookServiceImpl(BookRepository bookRepository,
                            AuthorRepository authorRepository,
-                           BookResponseMapper bookMapper, BookEditionRepository bookEditionRepository, BookEditionResponseMapper bookEditionResponseMapper) {
+                           BookResponseMapper bookMapper, BookEditionRepository bookEditionRepository, BookEditionResponseMapper bookEditionResponseMapper,
+                           BookTitleIndex bookTitleIndex, BookFacetIndex bookFacetIndex,
+                           ApplicationEventPublisher eventPublisher, BoundedCache<Long, BookResponse> bookCache) {
         this.bookRepository = bookRepository;
         this.authorRepository = authorRepository;
         this.bookMapper = bookMapper;
         this.bookEditionRepository = bookEditionRepository;
         this.bookEditionResponseMapper = bookEditionResponseMapper;
+        this.bookTitleIndex = bookTitleIndex;
+        this.bookFacetIndex = bookFacetIndex;
+        this.eventPublisher = eventPublisher;
+        this.bookCache = bookCache;
     }
 
     @Override
@@ -53,33 +76,65 @@ public class BookServiceImpl implements BookService {
 
         Book book = new Book(request.title(), genres, request.ageRating(), authors);
 
-        Book saved = bookRepository.save(book);
-        return bookMapper.toDto(saved);
+        return bookMapper.toDto(saveAndPublish(book));
     }
 
     @Override
     @Transactional(readOnly = true)
     public BookResponse getBookById(Long bookId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found"));
-        return bookMapper.toDto(book);
+        return bookCache.getOrLoad(bookId, id -> {
+            Book book = bookRepository.findById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found"));
+            return bookMapper.toDto(book);
+        });
     }
 
     @Override
     @Transactional(readOnly = true)
     public MultipleBooksResponse getBooks(BookQueryParams params) {
-        List<Book> books;
+        BookQueryParams query = params != null ? params : new BookQueryParams(null, null, null, null);
+
+        int limit = resolveLimit(query.limit());
+        Long afterId = query.cursor() != null ? CursorCodec.decodeId(query.cursor()) : null;
+        String title = query.title();
+        if (title != null && title.isBlank()) title = null; // treat blank as absent
+
+        // Fetch one extra id to find out whether there is a next page
+        List<Long> ids = findIdPage(title, query, afterId, limit + 1);
+        boolean hasNext = ids.size() > limit;
+        if (hasNext) {
+            ids = ids.subList(0, limit);
+        }
 
-        if (params == null) {
-            books = bookRepository.findAll();
-        } else {
-            String title = params.title();
-            if (title != null && title.isBlank()) title = null; // treat blank as absent
-            books = bookRepository.findByFiltered(title, params.genre(), params.authorId(), params.ageRating());
+        List<BookResponse> dtos = ids.isEmpty() ? List.of() : bookRepository.findByIdIn(ids).stream()
+                .sorted(Comparator.comparing(Book::getId))
+                .map(bookMapper::toDto)
+                .toList();
+        String nextCursor = hasNext ? CursorCodec.encode(ids.getLast()) : null;
+        return new MultipleBooksResponse(dtos, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookFacetsResponse getBookFacets(BookQueryParams params) {
+        BookQueryParams query = params != null ? params : new BookQueryParams(null, null, null, null);
+        String title = query.title();
+        if (title != null && title.isBlank()) title = null; // treat blank as absent
+
+        RoaringBitmap restrictTo = null;
+        if (title != null) {
+            if (!bookTitleIndex.isReady()) {
+                throw indexNotReady();
+            }
+            // a title without searchable characters cannot use the index - let the database do the substring match
+            Optional<Set<Long>> matches = bookTitleIndex.findMatches(title);
+            restrictTo = matches.isPresent() ? BookFacetIndex.toBitmap(matches.get()) : findTitleMatchesInDatabase(title);
         }
 
-        List<BookResponse> dtos = books.stream().map(bookMapper::toDto).toList();
-        return new MultipleBooksResponse(dtos);
+        BookFacetIndex.FacetCounts counts = bookFacetIndex
+                .countFacets(query.genre(), query.authorId(), query.ageRating(), restrictTo)
+                .orElseThrow(BookServiceImpl::indexNotReady);
+        return new BookFacetsResponse(counts.total(), counts.genres(), counts.ageRatings());
     }
 
     @Override
@@ -100,8 +155,7 @@ public class BookServiceImpl implements BookService {
             book.setAuthors(authors);
         }
 
-        Book saved = bookRepository.save(book);
-        return bookMapper.toDto(saved);
+        return bookMapper.toDto(saveAndPublish(book));
     }
 
     @Override
@@ -120,7 +174,7 @@ public class BookServiceImpl implements BookService {
         authors.add(author);
         book.setAuthors(authors);
 
-        return bookMapper.toDto(bookRepository.save(book));
+        return bookMapper.toDto(saveAndPublish(book));
     }
 
     @Override
@@ -133,7 +187,7 @@ public class BookServiceImpl implements BookService {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Author is not assigned to this book");
         }
 
-        return bookMapper.toDto(bookRepository.save(book));
+        return bookMapper.toDto(saveAndPublish(book));
     }
 
     @Override
@@ -141,15 +195,11 @@ public class BookServiceImpl implements BookService {
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found"));
 
-        if (book.getGenres().contains(genre)) {
+        if (!book.addGenre(genre)) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Genre is already assigned to this book");
         }
 
-        Set<Genre> genres = book.getGenres();
-        genres.add(genre);
-        book.setGenres(genres);
-
-        return bookMapper.toDto(bookRepository.save(book));
+        return bookMapper.toDto(saveAndPublish(book));
     }
 
     @Override
@@ -157,14 +207,11 @@ public class BookServiceImpl implements BookService {
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found"));
 
-        Set<Genre> genres = book.getGenres();
-
-        if (!genres.remove(genre)) {
+        if (!book.removeGenre(genre)) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Genre is not assigned to this book");
         }
 
-        book.setGenres(genres);
-        return bookMapper.toDto(bookRepository.save(book));
+        return bookMapper.toDto(saveAndPublish(book));
     }
 
     @Override
@@ -177,7 +224,7 @@ public class BookServiceImpl implements BookService {
         }
 
         book.setAgeRating(request.ageRating());
-        return bookMapper.toDto(bookRepository.save(book));
+        return bookMapper.toDto(saveAndPublish(book));
     }
 
     @Override
@@ -192,6 +239,8 @@ public class BookServiceImpl implements BookService {
 
         try {
             bookRepository.delete(book);
+            bookCache.invalidateAfterCommit(bookId);
+            eventPublisher.publishEvent(BookChangedEvent.deleted(bookId));
         } catch (DataIntegrityViolationException ex) {
             // This is your “cannot delete if referenced” rule.
             throw new ResponseStatusException(
@@ -209,6 +258,79 @@ public class BookServiceImpl implements BookService {
         return bookEditionResponseMapper.listToDto(bookEditionRepository.getAllByBook(book));
     }
 
+    private static Long genreBit(Genre genre) {
+        return genre != null ? GenreSetConverter.bitOf(genre) : null;
+    }
+
+    private static ResponseStatusException indexNotReady() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Book index is still being built, try again shortly");
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private List<Long> findIdPage(String title, BookQueryParams params, Long afterId, int size) {
+        Optional<Set<Long>> matches = title != null ? bookTitleIndex.findMatches(title) : Optional.empty();
+
+        if (title == null || matches.isPresent()) {
+            RoaringBitmap restrictTo = matches.map(BookFacetIndex::toBitmap).orElse(null);
+            Optional<RoaringBitmap> filtered = bookFacetIndex.filter(params.genre(), params.authorId(), params.ageRating(), restrictTo);
+            if (filtered.isPresent()) {
+                // answered entirely in memory - only the final page goes to the database
+                return BookFacetIndex.page(filtered.get(), afterId, size);
+            }
+        }
+
+        if (matches.isEmpty()) {
+            // no title filter, or index not ready - let the database do the substring match
+            return bookRepository.findIdPage(afterId, title, genreBit(params.genre()), params.authorId(), params.ageRating(),
+                    PageRequest.of(0, size));
+        }
+
+        List<Long> remaining = matches.get().stream()
+                .filter(id -> afterId == null || id > afterId)
+                .sorted()
+                .toList();
+
+        // Walk the matches in id order, in chunks small enough for an IN list, until the page is full
+        List<Long> page = new ArrayList<>(size);
+        for (int from = 0; from < remaining.size() && page.size() < size; from += MAX_IN_LIST_SIZE) {
+            List<Long> chunk = remaining.subList(from, Math.min(from + MAX_IN_LIST_SIZE, remaining.size()));
+            page.addAll(bookRepository.findIdPageWithinIds(chunk, genreBit(params.genre()), params.authorId(),
+                    params.ageRating(), PageRequest.of(0, size - page.size())));
+        }
+        return page;
+    }
+
+    // Walks the LIKE matches in id order, one bounded page at a time, collecting the ids in a compressed bitmap
+    private RoaringBitmap findTitleMatchesInDatabase(String title) {
+        RoaringBitmap ids = new RoaringBitmap();
+        Long afterId = null;
+        List<Long> chunk;
+        do {
+            chunk = bookRepository.findIdPage(afterId, title, null, null, null, PageRequest.of(0, MAX_IN_LIST_SIZE));
+            if (!chunk.isEmpty()) {
+                ids.or(BookFacetIndex.toBitmap(chunk));
+                afterId = chunk.getLast();
+            }
+        } while (chunk.size() == MAX_IN_LIST_SIZE);
+        return ids;
+    }
+
+    private Book saveAndPublish(Book book) {
+        Book saved = bookRepository.save(book);
+        bookCache.invalidateAfterCommit(saved.getId());
+        eventPublisher.publishEvent(BookChangedEvent.saved(saved));
+        return saved;
+    }
+
     private Set<Author> resolveAuthors(Set<Long> authorIds) {
         if (authorIds == null || authorIds.isEmpty()) return new HashSet<>();
 
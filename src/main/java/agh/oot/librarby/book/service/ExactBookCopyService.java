@@ -2,10 +2,12 @@ package agh.oot.librarby.book.service;
 
 import agh.oot.librarby.book.dto.*;
 import agh.oot.librarby.book.model.BookEdition;
+import agh.oot.librarby.book.model.CopyStatus;
 import agh.oot.librarby.book.model.ExactBookCopy;
 import agh.oot.librarby.book.repository.BookEditionRepository;
 import agh.oot.librarby.book.repository.ExactBookCopyRepository;
 import agh.oot.librarby.publisher.dto.PublisherResponse;
+import agh.oot.librarby.stats.service.CirculationStats;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -19,10 +21,13 @@ public class ExactBookCopyService {
 
     private final BookEditionRepository bookEditionRepository;
     private final ExactBookCopyRepository exactBookCopyRepository;
+    private final CirculationStats circulationStats;
 
-    public ExactBookCopyService(BookEditionRepository bookEditionRepository, ExactBookCopyRepository exactBookCopyRepository) {
+    public ExactBookCopyService(BookEditionRepository bookEditionRepository, ExactBookCopyRepository exactBookCopyRepository,
+                                CirculationStats circulationStats) {
         this.bookEditionRepository = bookEditionRepository;
         this.exactBookCopyRepository = exactBookCopyRepository;
+        this.circulationStats = circulationStats;
     }
 
     @Transactional
@@ -34,6 +39,7 @@ public class ExactBookCopyService {
         ExactBookCopy copy = new ExactBookCopy(bookEdition, request.status());
 
         ExactBookCopy savedCopy = exactBookCopyRepository.save(copy);
+        circulationStats.copyStatusChanged(null, savedCopy.getStatus());
 
         return mapToResponse(savedCopy);
     }
@@ -88,6 +94,7 @@ public class ExactBookCopyService {
         ExactBookCopy bookCopy = exactBookCopyRepository.findById(bookId)
                 .orElseThrow(() -> new EntityNotFoundException("Exact book copy with id:  " + bookId + " not found."));
         exactBookCopyRepository.delete(bookCopy);
+        circulationStats.copyStatusChanged(bookCopy.getStatus(), null);
     }
 
     @Transactional
@@ -95,7 +102,9 @@ public class ExactBookCopyService {
         ExactBookCopy copy = exactBookCopyRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("ExactBookCopy " + id + " not found"));
 
+        CopyStatus previous = copy.getStatus();
         Optional.ofNullable(request.status()).ifPresent(copy::setStatus);
+        circulationStats.copyStatusChanged(previous, copy.getStatus());
 
         return mapToResponse(copy);
     }
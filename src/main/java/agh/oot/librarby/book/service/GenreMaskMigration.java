@@ -0,0 +1,76 @@
+package agh.oot.librarby.book.service;
+
+import agh.oot.librarby.book.model.Genre;
+import agh.oot.librarby.book.util.GenreSetConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Moves genres from the legacy {@code book_genres} collection table into the {@code books.genre_mask}
+ * column introduced by {@link GenreSetConverter}.
+ *
+ * <p>Runs on startup, after Hibernate has added the new column. Setting bits is idempotent, so an
+ * interrupted run can simply be repeated. Once done, the legacy table is renamed to
+ * {@code book_genres_legacy} (rather than dropped) so the migration does not run again.
+ *
+ * <p>Also widens {@code genre_mask} from the original {@code INT} to {@code BIGINT}: Hibernate's schema update
+ * does not change column types, and bit 31 does not fit into a signed {@code INT}.
+ */
+@Component
+public class GenreMaskMigration implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GenreMaskMigration.class);
+
+    private static final String LEGACY_TABLE = "book_genres";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GenreMaskMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void run(String... args) {
+        widenMaskColumn();
+
+        Integer tables = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.tables where table_schema = database() and table_name = ?",
+                Integer.class, LEGACY_TABLE);
+        if (tables == null || tables == 0) {
+            return;
+        }
+
+        log.info("GenreMaskMigration: migrating {} into books.genre_mask...", LEGACY_TABLE);
+
+        int updated = 0;
+        for (Genre genre : Genre.values()) {
+            updated += jdbcTemplate.update(
+                    "update books b join " + LEGACY_TABLE + " g on g.book_id = b.id "
+                            + "set b.genre_mask = b.genre_mask | ? where g.genre = ?",
+                    GenreSetConverter.bitOf(genre), genre.name());
+        }
+
+        // MySQL commits implicitly on DDL, so the rename has to come last
+        jdbcTemplate.execute("rename table " + LEGACY_TABLE + " to " + LEGACY_TABLE + "_legacy");
+        log.info("GenreMaskMigration: migrated {} book genres", updated);
+    }
+
+    private void widenMaskColumn() {
+        String type = jdbcTemplate.query(
+                "select data_type from information_schema.columns "
+                        + "where table_schema = database() and table_name = 'books' and column_name = 'genre_mask'",
+                rs -> rs.next() ? rs.getString(1) : null);
+        if (type == null || type.equalsIgnoreCase("bigint")) {
+            return;
+        }
+
+        // DDL commits implicitly, so this runs before the updates below
+        jdbcTemplate.execute("alter table books modify genre_mask bigint not null default 0");
+        log.info("GenreMaskMigration: widened books.genre_mask from {} to bigint", type);
+    }
+}
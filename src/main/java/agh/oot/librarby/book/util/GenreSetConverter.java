@@ -0,0 +1,59 @@
+package agh.oot.librarby.book.util;
+
+import agh.oot.librarby.book.model.Genre;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Stores a set of genres as a single {@code BIGINT} bitmask, bit {@code n} standing for the genre
+ * with ordinal {@code n}.
+ *
+ * <p>Because the mask depends on ordinals, new genres must only ever be appended to {@link Genre}
+ * and there can be at most 63 of them, so the mask stays a positive signed {@code BIGINT} in MySQL.
+ */
+@Converter
+public class GenreSetConverter implements AttributeConverter<Set<Genre>, Long> {
+
+    static {
+        if (Genre.values().length > Long.SIZE - 1) {
+            throw new IllegalStateException("Genre has more constants than fit into a BIGINT bitmask");
+        }
+    }
+
+    @Override
+    public Long convertToDatabaseColumn(Set<Genre> attribute) {
+        return toMask(attribute);
+    }
+
+    @Override
+    public Set<Genre> convertToEntityAttribute(Long dbData) {
+        return fromMask(dbData != null ? dbData : 0L);
+    }
+
+    public static long bitOf(Genre genre) {
+        return 1L << genre.ordinal();
+    }
+
+    public static long toMask(Set<Genre> genres) {
+        long mask = 0;
+        if (genres != null) {
+            for (Genre genre : genres) {
+                mask |= bitOf(genre);
+            }
+        }
+        return mask;
+    }
+
+    public static EnumSet<Genre> fromMask(long mask) {
+        EnumSet<Genre> genres = EnumSet.noneOf(Genre.class);
+        for (Genre genre : Genre.values()) {
+            if ((mask & bitOf(genre)) != 0) {
+                genres.add(genre);
+            }
+        }
+        return genres;
+    }
+}
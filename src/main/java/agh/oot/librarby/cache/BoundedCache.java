@@ -0,0 +1,200 @@
+package agh.oot.librarby.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Small in-process cache with a maximum size (least recently used entries are evicted first)
+ * and a time-to-live per entry.
+ *
+ * <p>Values are expected to be immutable (typically response DTOs). Loads happen outside the cache lock;
+ * a value loaded while an invalidation was in progress is returned to the caller but not stored, so an
+ * invalidation can never be overwritten by a read that started before it.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class BoundedCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+    // bumped on every invalidation, guarded by this
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    public BoundedCache(String name, int maxSize, Duration ttl) {
+        this(name, maxSize, ttl, System::nanoTime);
+    }
+
+    BoundedCache(String name, int maxSize, Duration ttl, LongSupplier nanoTime) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        this.name = Objects.requireNonNull(name, "name must not be null");
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoTime = nanoTime;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                boolean evict = size() > BoundedCache.this.maxSize;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Optional<V> get(K key) {
+        V value = lookup(key);
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return Optional.ofNullable(value);
+    }
+
+    /**
+     * Returns the cached value for {@code key}, loading and caching it on a miss.
+     * Exceptions thrown by the loader propagate and nothing is cached.
+     */
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            V value = lookup(key);
+            if (value != null) {
+                hits.increment();
+                return value;
+            }
+            loadGeneration = generation;
+        }
+
+        misses.increment();
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    entries.put(key, new Entry<>(loaded, nanoTime.getAsLong() + ttlNanos));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, Duration.ofNanos(ttlNanos));
+    }
+
+    /**
+     * Stores a value with its own time-to-live instead of the cache default.
+     */
+    public synchronized void put(K key, V value, Duration ttl) {
+        Objects.requireNonNull(value, "value must not be null");
+        entries.put(key, new Entry<>(value, nanoTime.getAsLong() + ttl.toNanos()));
+    }
+
+    /**
+     * Stores a value once the current transaction commits, or right away when there is no transaction,
+     * so a rolled back write is never cached.
+     */
+    public void putAfterCommit(K key, V value) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit(() -> put(key, value));
+        } else {
+            put(key, value);
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateIf(Predicate<? super V> predicate) {
+        generation++;
+        entries.values().removeIf(entry -> predicate.test(entry.value()));
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    /**
+     * Invalidates {@code key} now and, if called inside a transaction, once more after it commits.
+     * The second pass drops values that concurrent readers loaded from the not yet committed state.
+     */
+    public void invalidateAfterCommit(K key) {
+        invalidate(key);
+        afterCommit(() -> invalidate(key));
+    }
+
+    /**
+     * Transaction-aware variant of {@link #invalidateIf(Predicate)}, see {@link #invalidateAfterCommit(Object)}.
+     */
+    public void invalidateIfAfterCommit(Predicate<? super V> predicate) {
+        invalidateIf(predicate);
+        afterCommit(() -> invalidateIf(predicate));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(name, size(), maxSize, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    // Drops the entry if it has expired; does not touch the hit/miss counters
+    private synchronized V lookup(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (nanoTime.getAsLong() - entry.expiresAt() >= 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+}
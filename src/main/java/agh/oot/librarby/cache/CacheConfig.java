@@ -0,0 +1,65 @@
+package agh.oot.librarby.cache;
+
+import agh.oot.librarby.auth.model.CustomUserDetails;
+import agh.oot.librarby.auth.model.VerifiedToken;
+import agh.oot.librarby.author.dto.AuthorResponse;
+import agh.oot.librarby.book.dto.BookResponse;
+import agh.oot.librarby.publisher.dto.PublisherResponse;
+import agh.oot.librarby.reservation.dto.ReservationResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * In-process caches. Catalog entries are invalidated by the owning services on every change; their TTL only
+ * bounds staleness caused by changes made outside the application.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public BoundedCache<Long, BookResponse> bookCache(
+            @Value("${app.cache.books.max-size:10000}") int maxSize,
+            @Value("${app.cache.books.ttl:PT10M}") Duration ttl) {
+        return new BoundedCache<>("books", maxSize, ttl);
+    }
+
+    @Bean
+    public BoundedCache<Long, AuthorResponse> authorCache(
+            @Value("${app.cache.authors.max-size:5000}") int maxSize,
+            @Value("${app.cache.authors.ttl:PT30M}") Duration ttl) {
+        return new BoundedCache<>("authors", maxSize, ttl);
+    }
+
+    @Bean
+    public BoundedCache<Long, PublisherResponse> publisherCache(
+            @Value("${app.cache.publishers.max-size:1000}") int maxSize,
+            @Value("${app.cache.publishers.ttl:PT30M}") Duration ttl) {
+        return new BoundedCache<>("publishers", maxSize, ttl);
+    }
+
+    @Bean
+    public BoundedCache<String, VerifiedToken> tokenCache(
+            @Value("${app.cache.tokens.max-size:10000}") int maxSize,
+            @Value("${app.cache.tokens.ttl:PT24H}") Duration ttl) {
+        // entries are stored with the remaining lifetime of their token
+        return new BoundedCache<>("tokens", maxSize, ttl);
+    }
+
+    @Bean
+    public BoundedCache<String, CustomUserDetails> userDetailsCache(
+            @Value("${app.cache.user-details.max-size:10000}") int maxSize,
+            @Value("${app.cache.user-details.ttl:PT5M}") Duration ttl) {
+        return new BoundedCache<>("user-details", maxSize, ttl);
+    }
+
+    @Bean
+    public BoundedCache<String, ReservationResponse> reservationIdempotencyCache(
+            @Value("${app.cache.reservation-idempotency.max-size:10000}") int maxSize,
+            @Value("${app.cache.reservation-idempotency.ttl:PT24H}") Duration ttl) {
+        // responses of POST /api/v1/reservations by Idempotency-Key; the TTL is the replay window
+        return new BoundedCache<>("reservation-idempotency", maxSize, ttl);
+    }
+}
@@ -0,0 +1,59 @@
+package agh.oot.librarby.cache;
+
+import agh.oot.librarby.exception.ApiErrorResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Comparator;
+import java.util.List;
+
+@RestController
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Caches", description = "Monitoring of in-process caches")
+@RequestMapping(
+        path = "/api/v1/admin/caches",
+        produces = MediaType.APPLICATION_JSON_VALUE
+)
+public class CacheController {
+
+    private final List<BoundedCache<?, ?>> caches;
+
+    public CacheController(List<BoundedCache<?, ?>> caches) {
+        this.caches = caches;
+    }
+
+    @Operation(summary = "Get cache statistics", description = "Returns size and hit/miss counters of every cache. Requires admin privileges.")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Statistics retrieved successfully",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = CacheStats.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Access denied",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<CacheStats>> getCacheStats() {
+        List<CacheStats> stats = caches.stream()
+                .map(BoundedCache::stats)
+                .sorted(Comparator.comparing(CacheStats::name))
+                .toList();
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,30 @@
+package agh.oot.librarby.cache;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Usage statistics of an in-process cache")
+public record CacheStats(
+        @Schema(description = "Cache name", example = "books")
+        String name,
+
+        @Schema(description = "Current number of entries", example = "120")
+        int size,
+
+        @Schema(description = "Maximum number of entries", example = "10000")
+        int maxSize,
+
+        @Schema(description = "Lookups answered from the cache", example = "5400")
+        long hits,
+
+        @Schema(description = "Lookups that had to load the value", example = "130")
+        long misses,
+
+        @Schema(description = "Entries evicted because the cache was full", example = "0")
+        long evictions
+) {
+    @Schema(description = "Share of lookups answered from the cache (0 to 1)", example = "0.976")
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
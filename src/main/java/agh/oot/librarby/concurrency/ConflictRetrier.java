@@ -0,0 +1,80 @@
+package agh.oot.librarby.concurrency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in its own transaction and repeats it when it loses an optimistic locking race
+ * (a {@code @Version} check failed because another transaction changed the same row first).
+ *
+ * <p>Every attempt re-reads the current state, so a retried checkout of a copy that was lent meanwhile
+ * fails with the ordinary "not available" error instead of a version conflict. Attempts are separated
+ * by a short randomized backoff. When all attempts conflict, an {@link IllegalStateException} (409) is
+ * thrown.
+ *
+ * <p>Must be the transaction boundary: called inside an existing transaction, the work simply joins it and
+ * is not retried, because the outer transaction is already marked for rollback.
+ */
+@Component
+public class ConflictRetrier {
+
+    private static final Logger log = LoggerFactory.getLogger(ConflictRetrier.class);
+
+    private final TransactionOperations transactionOperations;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public ConflictRetrier(TransactionOperations transactionOperations,
+                           @Value("${app.concurrency.conflict-retry.max-attempts:3}") int maxAttempts,
+                           @Value("${app.concurrency.conflict-retry.backoff:PT0.02S}") Duration backoff) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts must be positive");
+        }
+        this.transactionOperations = transactionOperations;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoff.toMillis();
+    }
+
+    public <T> T execute(String operation, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionOperations.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    log.warn("ConflictRetrier: {} still conflicting after {} attempts", operation, attempt);
+                    throw new IllegalStateException(
+                            "The " + operation + " conflicted with a concurrent change, please try again", ex);
+                }
+                log.debug("ConflictRetrier: {} conflicted (attempt {}), retrying", operation, attempt);
+                backOff(operation, attempt);
+            }
+        }
+    }
+
+    private void backOff(String operation, int attempt) {
+        if (backoffMillis <= 0) {
+            return;
+        }
+        // doubling window with full jitter, so competing desks do not retry in lockstep
+        long window = backoffMillis << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(window + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying the " + operation, ex);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package agh.oot.librarby.lease;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    // Creates an already expired lease row if none exists yet; a no-op otherwise
+    @Modifying
+    @Query(value = "insert ignore into job_leases (name, owner, expires_at) values (:name, '', :expiresAt)", nativeQuery = true)
+    void insertIfAbsent(@Param("name") String name, @Param("expiresAt") Instant expiresAt);
+
+    // Atomic compare-and-set: succeeds if the lease has expired or is already held by the same owner
+    @Modifying
+    @Query("""
+            update JobLease l set l.owner = :owner, l.expiresAt = :until
+            where l.name = :name and (l.expiresAt < :now or l.owner = :owner)
+            """)
+    int tryAcquire(@Param("name") String name, @Param("owner") String owner,
+                   @Param("now") Instant now, @Param("until") Instant until);
+
+    @Modifying
+    @Query("update JobLease l set l.expiresAt = :now where l.name = :name and l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") Instant now);
+}
@@ -0,0 +1,56 @@
+package agh.oot.librarby.lease;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Database-backed leases that let exactly one application node run a scheduled job at a time.
+ *
+ * <p>A lease is a row in {@code job_leases} holding the owner node and an expiry time. Acquiring is a single
+ * conditional update, so it is atomic across nodes; the owner renews the lease by acquiring it again before
+ * it expires. If a node dies, its lease simply runs out and another node takes over.
+ */
+@Service
+public class JobLeaseService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobLeaseService.class);
+
+    private final JobLeaseRepository jobLeaseRepository;
+    private final String owner = UUID.randomUUID().toString();
+
+    public JobLeaseService(JobLeaseRepository jobLeaseRepository) {
+        this.jobLeaseRepository = jobLeaseRepository;
+    }
+
+    /**
+     * Acquires or renews the lease {@code name} for {@code duration}.
+     * Commits on its own, so the lease is visible to other nodes even while the caller's transaction runs.
+     *
+     * @return {@code true} if this node now holds the lease
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean tryAcquire(String name, Duration duration) {
+        Instant now = Instant.now();
+        jobLeaseRepository.insertIfAbsent(name, Instant.EPOCH);
+        boolean acquired = jobLeaseRepository.tryAcquire(name, owner, now, now.plus(duration)) == 1;
+        if (!acquired) {
+            log.debug("JobLeaseService: lease {} is held by another node", name);
+        }
+        return acquired;
+    }
+
+    /**
+     * Gives up the lease early so another node does not have to wait for it to expire.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(String name) {
+        jobLeaseRepository.release(name, owner, Instant.now());
+    }
+}
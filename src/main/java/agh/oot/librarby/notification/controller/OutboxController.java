@@ -0,0 +1,53 @@
+package agh.oot.librarby.notification.controller;
+
+import agh.oot.librarby.exception.ApiErrorResponse;
+import agh.oot.librarby.notification.dto.OutboxStats;
+import agh.oot.librarby.notification.service.OutboxRelay;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Outbox", description = "Monitoring of the reservation event outbox")
+@RequestMapping(
+        path = "/api/v1/admin/outbox",
+        produces = MediaType.APPLICATION_JSON_VALUE
+)
+public class OutboxController {
+
+    private final OutboxRelay outboxRelay;
+
+    public OutboxController(OutboxRelay outboxRelay) {
+        this.outboxRelay = outboxRelay;
+    }
+
+    @Operation(summary = "Get outbox statistics", description = "Returns the outbox backlog, its lag and the relay throughput. Requires admin privileges.")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Statistics retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = OutboxStats.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Access denied",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<OutboxStats> getOutboxStats() {
+        return ResponseEntity.ok(outboxRelay.stats());
+    }
+}
@@ -0,0 +1,29 @@
+package agh.oot.librarby.notification.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Backlog and throughput of the reservation event outbox relay")
+public record OutboxStats(
+
+        @Schema(description = "Events waiting to be delivered (including ones waiting for a retry)", example = "3")
+        long pending,
+
+        @Schema(description = "Events that ran out of retries", example = "0")
+        long failed,
+
+        @Schema(description = "Age of the oldest pending event in seconds (0 if none)", example = "4")
+        long lagSeconds,
+
+        @Schema(description = "Events delivered by this node since startup", example = "1520")
+        long sentSinceStartup,
+
+        @Schema(description = "Failed delivery attempts on this node since startup (retried or given up)", example = "12")
+        long failedAttemptsSinceStartup,
+
+        @Schema(description = "Events processed by the last relay run on this node", example = "50")
+        long lastRunEvents,
+
+        @Schema(description = "Delivered events per second during the last relay run on this node", example = "812.5")
+        double lastRunEventsPerSecond
+) {
+}
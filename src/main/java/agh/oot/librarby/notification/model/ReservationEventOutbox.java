@@ -8,7 +8,11 @@ import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
-@Table(name = "reservation_outbox")
+@Table(
+        name = "reservation_outbox",
+        // the relay claims PENDING rows in next_attempt_at order
+        indexes = @Index(name = "idx_reservation_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+)
 public class ReservationEventOutbox {
     @Id
     private UUID id = UUID.randomUUID();
@@ -28,6 +32,15 @@ public class ReservationEventOutbox {
     private Instant createdAt;
     private int retryCount;
 
+    // null for rows written before retries were scheduled; such rows are due immediately
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    private Instant sentAt;
+
+    @Column(length = 500)
+    private String lastError;
+
     private ReservationEventOutbox(Reservation res, ReservationEventType eventType) {
         this.reservationId = res.getId();
         this.readerId = res.getReader().getId();
@@ -37,6 +50,7 @@ public class ReservationEventOutbox {
         this.status = OutboxStatus.PENDING;
         this.createdAt = Instant.now();
         this.retryCount = 0;
+        this.nextAttemptAt = this.createdAt;
     }
 
     public static ReservationEventOutbox build(Reservation res, ReservationEventType eventType) {
@@ -83,5 +97,34 @@ public class ReservationEventOutbox {
         return retryCount;
     }
 
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public Instant getSentAt() {
+        return sentAt;
+    }
 
-}
\ No newline at end of file
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void markSent(Instant sentAt) {
+        this.status = OutboxStatus.SENT;
+        this.sentAt = sentAt;
+        this.lastError = null;
+    }
+
+    /**
+     * Records a failed delivery attempt. The row stays PENDING until {@code nextAttemptAt}, or becomes
+     * FAILED for good if {@code nextAttemptAt} is {@code null}.
+     */
+    public void markAttemptFailed(String error, Instant nextAttemptAt) {
+        this.retryCount++;
+        this.lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        this.nextAttemptAt = nextAttemptAt;
+        if (nextAttemptAt == null) {
+            this.status = OutboxStatus.FAILED;
+        }
+    }
+}
@@ -1,5 +1,5 @@
 package agh.oot.librarby.notification.model;
 
 public enum ReservationEventType {
-    CANCELLED, READY_FOR_PICKUP
+    CANCELLED, READY_FOR_PICKUP, EXPIRED
 }
@@ -1,10 +1,33 @@
 package agh.oot.librarby.notification.repository;
 
+import agh.oot.librarby.notification.model.OutboxStatus;
 import agh.oot.librarby.notification.model.ReservationEventOutbox;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 public interface ReservationEventOutboxRepository extends JpaRepository<ReservationEventOutbox, UUID> {
 
+    /**
+     * Locks up to {@code limit} due PENDING events. Rows already locked by another node are skipped
+     * rather than waited for, so several relays can drain the outbox in parallel without sending twice.
+     * Must be called inside a transaction; the locks are held until it ends.
+     */
+    @Query(value = """
+            select * from reservation_outbox
+            where status = 'PENDING' and (next_attempt_at is null or next_attempt_at <= :now)
+            order by next_attempt_at
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<ReservationEventOutbox> claimBatch(@Param("now") Instant now, @Param("limit") int limit);
+
+    long countByStatus(OutboxStatus status);
+
+    @Query("select min(o.createdAt) from ReservationEventOutbox o where o.status = agh.oot.librarby.notification.model.OutboxStatus.PENDING")
+    Instant findOldestPendingCreatedAt();
 }
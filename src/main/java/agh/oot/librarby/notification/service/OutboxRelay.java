@@ -0,0 +1,185 @@
+package agh.oot.librarby.notification.service;
+
+import agh.oot.librarby.notification.dto.OutboxStats;
+import agh.oot.librarby.notification.model.OutboxStatus;
+import agh.oot.librarby.notification.model.ReservationEventOutbox;
+import agh.oot.librarby.notification.repository.ReservationEventOutboxRepository;
+import agh.oot.librarby.notification.sink.ReservationEventSink;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers reservation events written to the {@code reservation_outbox} table to the configured
+ * {@link ReservationEventSink}.
+ *
+ * <p>Each batch is claimed with {@code FOR UPDATE SKIP LOCKED} inside its own transaction, so every
+ * application node can run the relay and rows are never delivered by two nodes at once. The events of a
+ * batch are sent concurrently on virtual threads while the rows stay locked; the results are then recorded
+ * and committed together. A failed attempt is retried with exponential backoff (base delay doubled per
+ * attempt, capped) until {@code max-attempts} is reached, after which the row is marked FAILED.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final ReservationEventOutboxRepository outboxRepository;
+    private final ReservationEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Duration sendTimeout;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private volatile long lastRunEvents;
+    private volatile double lastRunEventsPerSecond;
+
+    public OutboxRelay(ReservationEventOutboxRepository outboxRepository,
+                       ReservationEventSink sink,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${app.outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.relay.max-attempts:8}") int maxAttempts,
+                       @Value("${app.outbox.relay.base-backoff:PT10S}") Duration baseBackoff,
+                       @Value("${app.outbox.relay.max-backoff:PT1H}") Duration maxBackoff,
+                       @Value("${app.outbox.relay.send-timeout:PT30S}") Duration sendTimeout) {
+        if (batchSize <= 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException("batchSize and maxAttempts must be positive");
+        }
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.sendTimeout = sendTimeout;
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.outbox.relay.interval:PT5S}",
+            fixedDelayString = "${app.outbox.relay.interval:PT5S}"
+    )
+    public void relay() {
+        long started = System.nanoTime();
+        long sentBefore = sent.sum();
+        long events = 0;
+        int claimed;
+        do {
+            Integer batch = transactionTemplate.execute(status -> dispatchBatch());
+            claimed = batch != null ? batch : 0;
+            events += claimed;
+        } while (claimed == batchSize);
+
+        if (events > 0) {
+            long delivered = sent.sum() - sentBefore;
+            double seconds = Math.max(System.nanoTime() - started, 1) / 1e9;
+            lastRunEvents = events;
+            lastRunEventsPerSecond = delivered / seconds;
+            log.debug("OutboxRelay: processed {} events, {} delivered in {} ms", events, delivered, Math.round(seconds * 1000));
+        }
+    }
+
+    public OutboxStats stats() {
+        Instant oldest = outboxRepository.findOldestPendingCreatedAt();
+        long lagSeconds = oldest != null ? Math.max(Duration.between(oldest, Instant.now()).toSeconds(), 0) : 0;
+        return new OutboxStats(
+                outboxRepository.countByStatus(OutboxStatus.PENDING),
+                outboxRepository.countByStatus(OutboxStatus.FAILED),
+                lagSeconds,
+                sent.sum(),
+                failedAttempts.sum(),
+                lastRunEvents,
+                lastRunEventsPerSecond
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Runs inside the claiming transaction; returns the number of claimed rows
+    private int dispatchBatch() {
+        List<ReservationEventOutbox> batch = outboxRepository.claimBatch(Instant.now(), batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Future<?>> deliveries = new ArrayList<>(batch.size());
+        for (ReservationEventOutbox event : batch) {
+            deliveries.add(executor.submit(() -> {
+                sink.send(event);
+                return null;
+            }));
+        }
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        for (int i = 0; i < batch.size(); i++) {
+            ReservationEventOutbox event = batch.get(i);
+            Future<?> delivery = deliveries.get(i);
+            try {
+                delivery.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                event.markSent(Instant.now());
+                sent.increment();
+            } catch (ExecutionException ex) {
+                recordFailure(event, ex.getCause());
+            } catch (TimeoutException ex) {
+                delivery.cancel(true);
+                recordFailure(event, ex);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                delivery.cancel(true);
+                recordFailure(event, ex);
+            }
+        }
+        return batch.size();
+    }
+
+    private void recordFailure(ReservationEventOutbox event, Throwable cause) {
+        failedAttempts.increment();
+        String error = cause.getClass().getSimpleName() + (cause.getMessage() != null ? ": " + cause.getMessage() : "");
+        Instant nextAttemptAt = nextAttemptAt(event.getRetryCount() + 1, Instant.now());
+        event.markAttemptFailed(error, nextAttemptAt);
+
+        if (nextAttemptAt == null) {
+            log.warn("OutboxRelay: giving up on event {} after {} attempts: {}", event.getId(), event.getRetryCount(), error);
+        } else {
+            log.debug("OutboxRelay: event {} failed ({}), retrying at {}", event.getId(), error, nextAttemptAt);
+        }
+    }
+
+    /**
+     * Time of the next attempt after {@code attempts} failed ones, or {@code null} if the event should not be
+     * retried anymore. The delay doubles with every attempt: base, 2 * base, 4 * base... up to the maximum.
+     */
+    Instant nextAttemptAt(int attempts, Instant now) {
+        if (attempts >= maxAttempts) {
+            return null;
+        }
+        int exponent = Math.min(attempts - 1, 30);
+        Duration delay = baseBackoff.multipliedBy(1L << exponent);
+        return now.plus(delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay);
+    }
+}
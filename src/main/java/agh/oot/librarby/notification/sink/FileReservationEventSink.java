@@ -0,0 +1,50 @@
+package agh.oot.librarby.notification.sink;
+
+import agh.oot.librarby.notification.model.ReservationEventOutbox;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Appends every event as one JSON line to a local file ({@code app.outbox.file-sink.path}).
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "file")
+public class FileReservationEventSink implements ReservationEventSink {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    public FileReservationEventSink(@Value("${app.outbox.file-sink.path:reservation-events.jsonl}") Path path,
+                                    ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void send(ReservationEventOutbox event) throws IOException {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("id", event.getId());
+        line.put("eventType", event.getEventType());
+        line.put("reservationId", event.getReservationId());
+        line.put("readerId", event.getReaderId());
+        line.put("bookTitle", event.getBookTitle());
+        line.put("holdExpirationDate", event.getHoldExpirationDate());
+        line.put("createdAt", event.getCreatedAt());
+        String json = objectMapper.writeValueAsString(line) + System.lineSeparator();
+
+        // one writer at a time, so lines from concurrent deliveries never interleave
+        synchronized (this) {
+            Files.writeString(path, json, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+}
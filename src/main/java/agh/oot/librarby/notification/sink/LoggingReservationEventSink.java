@@ -0,0 +1,24 @@
+package agh.oot.librarby.notification.sink;
+
+import agh.oot.librarby.notification.model.ReservationEventOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default sink: writes every event to the application log.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingReservationEventSink implements ReservationEventSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingReservationEventSink.class);
+
+    @Override
+    public void send(ReservationEventOutbox event) {
+        log.info("LoggingReservationEventSink: {} for reader {} (reservation {}, \"{}\", hold until {})",
+                event.getEventType(), event.getReaderId(), event.getReservationId(),
+                event.getBookTitle(), event.getHoldExpirationDate());
+    }
+}
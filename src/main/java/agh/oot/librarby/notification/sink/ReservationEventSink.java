@@ -0,0 +1,18 @@
+package agh.oot.librarby.notification.sink;
+
+import agh.oot.librarby.notification.model.ReservationEventOutbox;
+
+/**
+ * Destination the outbox relay delivers reservation events to (e-mail gateway, message broker, file...).
+ *
+ * <p>Implementations are called concurrently from virtual threads and must be thread safe. Delivery is
+ * at least once: an event may be sent again if the relay fails before recording the result, so receivers
+ * should deduplicate on {@link ReservationEventOutbox#getId()}.
+ */
+public interface ReservationEventSink {
+
+    /**
+     * Delivers one event. Any exception marks the attempt as failed and schedules a retry.
+     */
+    void send(ReservationEventOutbox event) throws Exception;
+}
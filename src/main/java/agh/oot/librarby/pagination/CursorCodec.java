@@ -0,0 +1,62 @@
+package agh.oot.librarby.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Encodes keyset pagination positions as opaque, URL-safe cursor strings.
+ *
+ * <p>A cursor is simply the key of the last returned row (for example its id, or a timestamp and id),
+ * so fetching page N costs the same as fetching the first page. Clients must treat the value as opaque.
+ */
+public final class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+        // Utility class - private constructor
+    }
+
+    public static String encode(Object... keyParts) {
+        String raw = Arrays.stream(keyParts)
+                .map(part -> String.valueOf(Objects.requireNonNull(part, "cursor key part must not be null")))
+                .collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode(Object...)}.
+     *
+     * @param cursor        opaque cursor received from a client
+     * @param expectedParts number of key parts the caller expects
+     * @return the raw key parts
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static List<String> decode(String cursor, int expectedParts) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+
+        List<String> parts = List.of(raw.split(Pattern.quote(SEPARATOR), -1));
+        if (parts.size() != expectedParts) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return parts;
+    }
+
+    public static Long decodeId(String cursor) {
+        try {
+            return Long.valueOf(decode(cursor, 1).getFirst());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package agh.oot.librarby.publisher.service;
 
+import agh.oot.librarby.cache.BoundedCache;
 import agh.oot.librarby.publisher.dto.MultiplePublishersResponse;
 import agh.oot.librarby.publisher.dto.PublisherCreateRequest;
 import agh.oot.librarby.publisher.dto.PublisherResponse;
@@ -22,11 +23,14 @@ public class PublisherServiceImpl implements PublisherService {
     private final PublisherRepository publisherRepository;
     private final PublisherResponseMapper publisherResponseMapper;
     private final MultiplePublishersResponseMapper multiplePublishersResponseMapper;
+    private final BoundedCache<Long, PublisherResponse> publisherCache;
 
-    public PublisherServiceImpl(PublisherRepository publisherRepository, PublisherResponseMapper publisherResponseMapper, MultiplePublishersResponseMapper multiplePublishersResponseMapper) {
+    public PublisherServiceImpl(PublisherRepository publisherRepository, PublisherResponseMapper publisherResponseMapper, MultiplePublishersResponseMapper multiplePublishersResponseMapper,
+                                BoundedCache<Long, PublisherResponse> publisherCache) {
         this.publisherRepository = publisherRepository;
         this.publisherResponseMapper = publisherResponseMapper;
         this.multiplePublishersResponseMapper = multiplePublishersResponseMapper;
+        this.publisherCache = publisherCache;
     }
 
     public MultiplePublishersResponse getAllPublishers(String q) {
@@ -39,12 +43,14 @@ public class PublisherServiceImpl implements PublisherService {
     }
 
     public PublisherResponse getPublisherById(Long publisherId) {
-        Publisher publisher = publisherRepository.findById(publisherId)
-                .orElseThrow(() ->
-                        new ResponseStatusException(HttpStatus.NOT_FOUND, "Publisher not found")
-                );
-
-        return publisherResponseMapper.toDto(publisher);
+        return publisherCache.getOrLoad(publisherId, id -> {
+            Publisher publisher = publisherRepository.findById(id)
+                    .orElseThrow(() ->
+                            new ResponseStatusException(HttpStatus.NOT_FOUND, "Publisher not found")
+                    );
+
+            return publisherResponseMapper.toDto(publisher);
+        });
     }
 
     @Transactional
@@ -82,6 +88,7 @@ public class PublisherServiceImpl implements PublisherService {
 
         publisher.setName(request.name());
         Publisher updated = publisherRepository.save(publisher);
+        publisherCache.invalidateAfterCommit(publisherId);
 
         return publisherResponseMapper.toDto(updated);
     }
@@ -94,6 +101,7 @@ public class PublisherServiceImpl implements PublisherService {
                 );
         try {
             publisherRepository.delete(publisher);
+            publisherCache.invalidateAfterCommit(publisherId);
         } catch (org.springframework.dao.DataIntegrityViolationException e) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Publisher is referenced by at least one book edition");
         }
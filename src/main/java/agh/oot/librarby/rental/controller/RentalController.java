@@ -2,12 +2,16 @@ package agh.oot.librarby.rental.controller;
 
 import agh.oot.librarby.auth.config.SecurityExpressions;
 import agh.oot.librarby.exception.ApiErrorResponse;
+import agh.oot.librarby.rental.dto.BulkCheckoutRequest;
+import agh.oot.librarby.rental.dto.BulkRentalResponse;
+import agh.oot.librarby.rental.dto.BulkReturnRequest;
 import agh.oot.librarby.rental.dto.CreateRentalRequest;
 import agh.oot.librarby.rental.dto.ExtendRentalRequest;
 import agh.oot.librarby.rental.dto.MultipleRentalsResponse;
 import agh.oot.librarby.rental.dto.RentalResponse;
 import agh.oot.librarby.rental.model.RentalStatus;
 import agh.oot.librarby.rental.service.RentalService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -23,6 +27,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 @SecurityRequirement(name = "bearerAuth")
 @Tag(name = "Rentals", description = "Endpoints for managing rentals")
@@ -33,12 +41,16 @@ import org.springframework.web.server.ResponseStatusException;
 )
 public class RentalController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final RentalService rentalService;
     private final SecurityExpressions securityExpressions;
+    private final ObjectMapper objectMapper;
 
-    public RentalController(RentalService rentalService, SecurityExpressions securityExpressions) {
+    public RentalController(RentalService rentalService, SecurityExpressions securityExpressions, ObjectMapper objectMapper) {
         this.rentalService = rentalService;
         this.securityExpressions = securityExpressions;
+        this.objectMapper = objectMapper;
     }
 
     // ------------------------------------------------------------
@@ -48,7 +60,8 @@ public class RentalController {
     @Operation(
             summary = "Get rentals",
             description = """
-                    Retrieves rentals with optional filters.
+                    Retrieves rentals with optional filters, newest first, including archived rentals.
+                    Pass nextCursor from the response as cursor to get the following page.
                     Admin/Librarian: can view all rentals and filter freely.
                     Reader: must provide readerId equal to their own id.
                     """
@@ -87,21 +100,125 @@ public class RentalController {
             @Parameter(description = "Filter by rental status", example = "ACTIVE")
             @RequestParam(value = "status", required = false) RentalStatus status,
 
+            @Parameter(description = "Filter by active flag: true = not returned, false = returned", example = "true")
+            @RequestParam(value = "active", required = false) Boolean active,
+
+            @Parameter(description = "Page size (default 20, max 100)", example = "20")
+            @RequestParam(value = "limit", required = false) Integer limit,
+
+            @Parameter(description = "Opaque cursor returned as nextCursor by the previous page")
+            @RequestParam(value = "cursor", required = false) String cursor
+    ) {
+        checkReaderFilter(readerId);
+
+        MultipleRentalsResponse body = rentalService.getRentals(readerId, bookId, status, active, limit, cursor);
+        return ResponseEntity.ok(body);
+    }
+
+    // ------------------------------------------------------------
+    // GET /api/v1/rentals/export?readerId=&bookId=&status=&active=
+    // ------------------------------------------------------------
+
+    @Operation(
+            summary = "Export rentals",
+            description = """
+                    Streams all rentals matching the optional filters as newline-delimited JSON (one rental per line), newest first.
+                    Archived rentals (returned long ago) follow the current ones, again newest first.
+                    Rows are read through a database cursor, so exports of any size run in constant memory.
+                    Same authorization rules as listing rentals.
+                    """
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Rentals streamed successfully",
+                    content = @Content(mediaType = APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = RentalResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized – authentication required",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden – insufficient privileges or readerId mismatch/missing",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN','LIBRARIAN') or hasRole('READER')")
+    public ResponseEntity<StreamingResponseBody> exportRentals(
+            @Parameter(description = "Filter by reader ID (required for READER role)", example = "123")
+            @RequestParam(value = "readerId", required = false) Long readerId,
+
+            @Parameter(description = "Filter by book ID (title-level)", example = "12")
+            @RequestParam(value = "bookId", required = false) Long bookId,
+
+            @Parameter(description = "Filter by rental status", example = "ACTIVE")
+            @RequestParam(value = "status", required = false) RentalStatus status,
+
             @Parameter(description = "Filter by active flag: true = not returned, false = returned", example = "true")
             @RequestParam(value = "active", required = false) Boolean active
     ) {
-        // READER może pobierać tylko swoje wypożyczenia
-        if (securityExpressions.isReader()) {
-            if (readerId == null) {
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Readers must provide readerId");
-            }
-            if (!securityExpressions.isOwner(readerId)) {
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
+        checkReaderFilter(readerId);
+
+        StreamingResponseBody body = out -> rentalService.exportRentals(readerId, bookId, status, active, rental -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(rental));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
             }
-        }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
 
-        MultipleRentalsResponse body = rentalService.getRentals(readerId, bookId, status, active);
-        return ResponseEntity.ok(body);
+    // ------------------------------------------------------------
+    // GET /api/v1/rentals/overdue?limit=&cursor=
+    // ------------------------------------------------------------
+
+    @Operation(
+            summary = "Get overdue rentals",
+            description = """
+                    Retrieves rentals that are not returned and past their due date, most overdue first.
+                    Pass nextCursor from the response as cursor to get the following page.
+                    Requires admin or librarian privileges.
+                    """
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Overdue rentals retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = MultipleRentalsResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid limit or cursor",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized – authentication required",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden – insufficient privileges",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @GetMapping("/overdue")
+    @PreAuthorize("hasAnyRole('ADMIN','LIBRARIAN')")
+    public ResponseEntity<MultipleRentalsResponse> getOverdueRentals(
+            @Parameter(description = "Page size (default 20, max 100)", example = "20")
+            @RequestParam(value = "limit", required = false) Integer limit,
+
+            @Parameter(description = "Opaque cursor returned as nextCursor by the previous page")
+            @RequestParam(value = "cursor", required = false) String cursor
+    ) {
+        return ResponseEntity.ok(rentalService.getOverdueRentals(limit, cursor));
     }
 
     // ------------------------------------------------------------
@@ -199,6 +316,66 @@ public class RentalController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    // ------------------------------------------------------------
+    // POST /api/v1/rentals/bulk
+    // ------------------------------------------------------------
+
+    @Operation(
+            summary = "Create rentals in bulk",
+            description = """
+                    Rents several exact book copies to one reader in a single transaction and reports the result per copy.
+                    ALL_OR_NOTHING (default): no rental is created unless every copy can be rented.
+                    PARTIAL: rentals are created for every copy that can be rented.
+                    Requires admin or librarian privileges.
+                    """
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "At least one rental created",
+                    content = @Content(schema = @Schema(implementation = BulkRentalResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid input data",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized – authentication required",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden – insufficient privileges",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Reader not found",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "No rental created – see per-item results",
+                    content = @Content(schema = @Schema(implementation = BulkRentalResponse.class))
+            )
+    })
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN','LIBRARIAN')")
+    public ResponseEntity<BulkRentalResponse> createRentals(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    description = "Bulk rental creation payload",
+                    content = @Content(schema = @Schema(implementation = BulkCheckoutRequest.class))
+            )
+            @RequestBody @Valid BulkCheckoutRequest request
+    ) {
+        BulkRentalResponse result = rentalService.createRentals(request);
+        HttpStatus status = result.succeeded() > 0 ? HttpStatus.CREATED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(result);
+    }
+
     // ------------------------------------------------------------
     // POST /api/v1/rentals/{rentalId}/return
     // ------------------------------------------------------------
@@ -244,6 +421,53 @@ public class RentalController {
         return ResponseEntity.ok(updated);
     }
 
+    // ------------------------------------------------------------
+    // POST /api/v1/rentals/bulk/return
+    // ------------------------------------------------------------
+
+    @Operation(
+            summary = "Return rentals in bulk",
+            description = """
+                    Returns the active rentals of several exact book copies, identified by copy ID (e.g. scanned at the book drop).
+                    Copies without an active rental are reported and skipped; the others are still returned.
+                    Requires admin or librarian privileges.
+                    """
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Copies processed – see per-item results",
+                    content = @Content(schema = @Schema(implementation = BulkRentalResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid input data",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized – authentication required",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden – insufficient privileges",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @PostMapping(value = "/bulk/return", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN','LIBRARIAN')")
+    public ResponseEntity<BulkRentalResponse> returnRentals(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    description = "Scanned copy IDs",
+                    content = @Content(schema = @Schema(implementation = BulkReturnRequest.class))
+            )
+            @RequestBody @Valid BulkReturnRequest request
+    ) {
+        return ResponseEntity.ok(rentalService.returnRentals(request));
+    }
+
     // ------------------------------------------------------------
     // PATCH /api/v1/rentals/{rentalId}
     // ------------------------------------------------------------
@@ -295,4 +519,16 @@ public class RentalController {
         RentalResponse updated = rentalService.extendDueDate(rentalId, request);
         return ResponseEntity.ok(updated);
     }
+
+    // READER może pobierać tylko swoje wypożyczenia
+    private void checkReaderFilter(Long readerId) {
+        if (securityExpressions.isReader()) {
+            if (readerId == null) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Readers must provide readerId");
+            }
+            if (!securityExpressions.isOwner(readerId)) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
+            }
+        }
+    }
 }
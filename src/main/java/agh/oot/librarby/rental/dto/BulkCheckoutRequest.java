@@ -0,0 +1,35 @@
+package agh.oot.librarby.rental.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Schema(description = "Request payload for renting several exact book copies to one reader")
+public record BulkCheckoutRequest(
+
+        @Schema(description = "Reader ID (same as user account ID)", example = "2137", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull Long readerId,
+
+        @Schema(description = "Exact book copy IDs to rent", example = "[420, 421, 422]", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotEmpty
+        @Size(max = 100)
+        List<@NotNull Long> copyIds,
+
+        @Schema(description = "Due date of all rentals (must be in the future)", example = "2026-02-01", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull
+        @Future
+        LocalDate dueDate,
+
+        @Schema(description = "Commit semantics, ALL_OR_NOTHING by default", example = "PARTIAL", nullable = true)
+        BulkMode mode
+) {
+
+    public BulkMode modeOrDefault() {
+        return mode != null ? mode : BulkMode.ALL_OR_NOTHING;
+    }
+}
@@ -0,0 +1,28 @@
+package agh.oot.librarby.rental.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Result of a single item of a bulk rental operation")
+public record BulkItemResult(
+
+        @Schema(description = "Exact book copy ID", example = "420")
+        Long copyId,
+
+        @Schema(description = "Item outcome", example = "SUCCEEDED")
+        BulkItemStatus status,
+
+        @Schema(description = "Affected rental (null unless the item succeeded)", nullable = true)
+        RentalResponse rental,
+
+        @Schema(description = "Reason of the failure", example = "Exact book copy is not available for rental", nullable = true)
+        String message
+) {
+
+    public static BulkItemResult succeeded(Long copyId, RentalResponse rental) {
+        return new BulkItemResult(copyId, BulkItemStatus.SUCCEEDED, rental, null);
+    }
+
+    public static BulkItemResult failed(Long copyId, BulkItemStatus status, String message) {
+        return new BulkItemResult(copyId, status, null, message);
+    }
+}
@@ -0,0 +1,15 @@
+package agh.oot.librarby.rental.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of a single item of a bulk rental operation")
+public enum BulkItemStatus {
+    SUCCEEDED,
+    NOT_FOUND,
+    NOT_AVAILABLE,
+    DUPLICATE,
+    /** Renting the item would take the reader over their rental limit. */
+    LIMIT_EXCEEDED,
+    /** The item was valid, but another item failed in ALL_OR_NOTHING mode. */
+    ROLLED_BACK
+}
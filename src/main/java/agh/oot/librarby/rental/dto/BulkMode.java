@@ -0,0 +1,11 @@
+package agh.oot.librarby.rental.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Commit semantics of a bulk rental operation")
+public enum BulkMode {
+    /** Either every item succeeds or nothing is written. */
+    ALL_OR_NOTHING,
+    /** Valid items are committed, invalid ones are reported and skipped. */
+    PARTIAL
+}
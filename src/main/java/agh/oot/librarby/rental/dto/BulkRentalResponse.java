@@ -0,0 +1,27 @@
+package agh.oot.librarby.rental.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Per-item results of a bulk rental operation")
+public record BulkRentalResponse(
+
+        @Schema(description = "Commit semantics that were applied", example = "ALL_OR_NOTHING")
+        BulkMode mode,
+
+        @Schema(description = "Number of items that were committed", example = "3")
+        int succeeded,
+
+        @Schema(description = "Number of items that were not committed", example = "0")
+        int failed,
+
+        @Schema(description = "Results in request order")
+        List<BulkItemResult> items
+) {
+
+    public static BulkRentalResponse of(BulkMode mode, List<BulkItemResult> items) {
+        int succeeded = (int) items.stream().filter(item -> item.status() == BulkItemStatus.SUCCEEDED).count();
+        return new BulkRentalResponse(mode, succeeded, items.size() - succeeded, items);
+    }
+}
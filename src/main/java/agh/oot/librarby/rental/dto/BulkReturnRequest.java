@@ -0,0 +1,17 @@
+package agh.oot.librarby.rental.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Request payload for returning several exact book copies at once")
+public record BulkReturnRequest(
+
+        @Schema(description = "Scanned exact book copy IDs", example = "[420, 421, 422]", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotEmpty
+        @Size(max = 500)
+        List<@NotNull Long> copyIds
+) {}
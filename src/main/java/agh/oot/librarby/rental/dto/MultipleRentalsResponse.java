@@ -8,5 +8,12 @@ import java.util.List;
 public record MultipleRentalsResponse(
 
         @Schema(description = "List of rentals")
-        List<RentalResponse> rentals
-) {}
+        List<RentalResponse> rentals,
+
+        @Schema(description = "Cursor for the next page, null if this is the last page or the list is not paginated", nullable = true)
+        String nextCursor
+) {
+    public MultipleRentalsResponse(List<RentalResponse> rentals) {
+        this(rentals, null);
+    }
+}
@@ -37,5 +37,8 @@ public record RentalResponse(
         LocalDateTime rentedAt,
 
         @Schema(description = "Return timestamp (null if not returned yet)", example = "2026-01-20T10:15:00", nullable = true)
-        LocalDateTime returnedAt
+        LocalDateTime returnedAt,
+
+        @Schema(description = "Whether the rental is not returned and past its due date", example = "false")
+        boolean overdue
 ) {}
@@ -2,8 +2,10 @@ package agh.oot.librarby.rental.mapper;
 
 import agh.oot.librarby.rental.dto.RentalResponse;
 import agh.oot.librarby.rental.model.Rental;
+import agh.oot.librarby.rental.repository.RentalRow;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Objects;
@@ -34,7 +36,31 @@ public class RentalResponseMapper {
                 LocalDateTime.ofInstant(rental.getRentedAt(), zone),
                 rental.getReturnedAt() == null
                         ? null
-                        : LocalDateTime.ofInstant(rental.getReturnedAt(), zone)
+                        : LocalDateTime.ofInstant(rental.getReturnedAt(), zone),
+                rental.isOverdue()
         );
     }
+
+    public RentalResponse toDto(RentalRow row) {
+        Objects.requireNonNull(row, "row must not be null");
+
+        return new RentalResponse(
+                row.id(),
+                row.readerId(),
+                row.copyId(),
+                row.editionId(),
+                row.bookId(),
+                row.bookTitle(),
+                row.status(),
+                row.dueDate(),
+                toLocalDateTime(row.rentedAt()),
+                toLocalDateTime(row.returnedAt()),
+                Boolean.TRUE.equals(row.overdue())
+        );
+    }
+
+    // same zone convention as toDto(Rental)
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return instant == null ? null : LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
 }
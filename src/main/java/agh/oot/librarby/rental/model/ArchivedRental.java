@@ -0,0 +1,107 @@
+package agh.oot.librarby.rental.model;
+
+import agh.oot.librarby.book.model.Book;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A returned rental moved out of {@code rentals} by the {@code RentalArchiver}, keeping its original id.
+ * Rows are written only by the archiver's insert-select and never change afterwards.
+ *
+ * <p>References are plain ids without foreign keys, so the archive does not slow down writes to the hot tables.
+ */
+@Entity
+@Immutable
+@Table(
+        name = "rentals_archive",
+        indexes = {
+                // same (rented_at, id) keyset order as the rentals listing, overall, per reader and per book
+                @Index(name = "idx_rentals_archive_rented_at", columnList = "rented_at"),
+                @Index(name = "idx_rentals_archive_reader_rented_at", columnList = "reader_id, rented_at"),
+                @Index(name = "idx_rentals_archive_book_rented_at", columnList = "book_id, rented_at")
+        }
+)
+public class ArchivedRental {
+    @Id
+    private Long id;
+
+    @Column(name = "copy_id", nullable = false)
+    private Long copyId;
+
+    @Column(name = "reader_id", nullable = false)
+    private Long readerId;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(name = "edition_id", nullable = false)
+    private Long editionId;
+
+    // read-only view of book_id, only to select the title in listings
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private Book book;
+
+    @Column(name = "rented_at", nullable = false)
+    private Instant rentedAt;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+
+    @Column(name = "returned_at", nullable = false)
+    private Instant returnedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RentalStatus status;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+
+    protected ArchivedRental() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCopyId() {
+        return copyId;
+    }
+
+    public Long getReaderId() {
+        return readerId;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public Long getEditionId() {
+        return editionId;
+    }
+
+    public Instant getRentedAt() {
+        return rentedAt;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public Instant getReturnedAt() {
+        return returnedAt;
+    }
+
+    public RentalStatus getStatus() {
+        return status;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+}
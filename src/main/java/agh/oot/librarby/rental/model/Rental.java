@@ -2,9 +2,11 @@
 package agh.oot.librarby.rental.model;
 
 import agh.oot.librarby.user.model.Reader;
+import agh.oot.librarby.book.model.BookEdition;
 import agh.oot.librarby.book.model.ExactBookCopy;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.Instant;
 import java.time.LocalDate;
@@ -30,7 +32,19 @@ import java.util.Objects;
         }
 )
 @Entity
-@Table(name = "rentals")
+@Table(
+        name = "rentals",
+        indexes = {
+                // serves the "active and past due" range scans of the overdue sweeper and listing
+                @Index(name = "idx_rentals_returned_at_due_date", columnList = "returned_at, due_date"),
+                // (rented_at, id) keyset order of the rental listing, overall and per reader
+                @Index(name = "idx_rentals_rented_at", columnList = "rented_at"),
+                @Index(name = "idx_rentals_reader_rented_at", columnList = "reader_id, rented_at"),
+                // per book / per edition filters on the denormalized ids, in the same keyset order
+                @Index(name = "idx_rentals_book_rented_at", columnList = "book_id, rented_at"),
+                @Index(name = "idx_rentals_edition_rented_at", columnList = "edition_id, rented_at")
+        }
+)
 public class Rental {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -50,8 +64,23 @@ public class Rental {
     @Column(name = "rented_at", nullable = false, updatable = false)
     private Instant rentedAt;
 
+    // Copied from the copy when the rental is first saved, so filtering by book or edition needs no joins.
+    // Null only for rentals created before these columns existed; RentalBookIdBackfill fills them in on startup.
+    @Column(name = "book_id", updatable = false)
+    private Long bookId;
+
+    @Column(name = "edition_id", updatable = false)
+    private Long editionId;
+
     @PrePersist
-    void prePersist() { if (rentedAt == null) rentedAt = Instant.now(); }
+    void prePersist() {
+        if (rentedAt == null) rentedAt = Instant.now();
+        if (bookId == null) {
+            BookEdition edition = exactBookCopy.getBookEdition();
+            editionId = edition.getId();
+            bookId = edition.getBook().getId();
+        }
+    }
 
 
     @NotNull
@@ -66,6 +95,11 @@ public class Rental {
     @Column(nullable = false)
     private RentalStatus status;
 
+    // Set by the overdue sweeper once an active rental is past its due date, cleared on return
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean overdue;
+
     protected Rental() {
     }
 
@@ -104,6 +138,14 @@ public class Rental {
         return rentedAt;
     }
 
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public Long getEditionId() {
+        return editionId;
+    }
+
     public LocalDate getDueDate() {
         return dueDate;
     }
@@ -126,6 +168,14 @@ public class Rental {
         this.returnedAt = returnedAt;
     }
 
+    public boolean isOverdue() {
+        return overdue;
+    }
+
+    public void setOverdue(boolean overdue) {
+        this.overdue = overdue;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
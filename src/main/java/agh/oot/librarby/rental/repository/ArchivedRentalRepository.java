@@ -0,0 +1,40 @@
+package agh.oot.librarby.rental.repository;
+
+import agh.oot.librarby.rental.model.ArchivedRental;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+
+public interface ArchivedRentalRepository extends JpaRepository<ArchivedRental, Long>, ArchivedRentalSearchRepository {
+
+    @Query("""
+            select new agh.oot.librarby.rental.repository.RentalRow(
+                a.id, a.readerId, a.copyId, a.editionId, a.bookId, b.title, a.status, a.dueDate, a.rentedAt, a.returnedAt, false)
+            from ArchivedRental a join a.book b
+            where a.id = :id
+            """)
+    Optional<RentalRow> findRowById(@Param("id") Long id);
+
+    // Served by idx_rentals_archive_rented_at; null while the archive is empty
+    @Query("select max(a.rentedAt) from ArchivedRental a")
+    Optional<Instant> findNewestRentedAt();
+
+    // Copies returned rentals over, filling in book and edition for rentals the backfill has not reached yet
+    @Modifying
+    @Query(value = """
+            insert into rentals_archive
+                (id, copy_id, reader_id, book_id, edition_id, rented_at, due_date, returned_at, status, archived_at)
+            select r.id, r.copy_id, r.reader_id, coalesce(r.book_id, e.book_id), coalesce(r.edition_id, e.id),
+                   r.rented_at, r.due_date, r.returned_at, r.status, :archivedAt
+            from rentals r
+            join exact_book_copies c on c.id = r.copy_id
+            join book_editions e on e.id = c.book_edition_id
+            where r.id in (:ids) and r.returned_at is not null
+            """, nativeQuery = true)
+    int copyFromRentals(@Param("ids") Collection<Long> ids, @Param("archivedAt") Instant archivedAt);
+}
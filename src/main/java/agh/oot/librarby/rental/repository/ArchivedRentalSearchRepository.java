@@ -0,0 +1,27 @@
+package agh.oot.librarby.rental.repository;
+
+import agh.oot.librarby.rental.model.ArchivedRental;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Archived rental listing, with the same order and {@link RentalRow} shape as {@link RentalSearchRepository}
+ * so pages of both tables can be merged.
+ */
+public interface ArchivedRentalSearchRepository {
+
+    /**
+     * Returns up to {@code limit} archived rentals matching {@code spec} that come after the given key
+     * ({@code null} key for the first page).
+     */
+    List<RentalRow> findPage(Specification<ArchivedRental> spec, Instant afterRentedAt, Long afterId, int limit);
+
+    /**
+     * Passes every archived rental matching {@code spec} to {@code action}, reading them through a forward-only
+     * JDBC cursor. Must run inside a transaction.
+     */
+    void forEach(Specification<ArchivedRental> spec, Consumer<RentalRow> action);
+}
@@ -0,0 +1,83 @@
+package agh.oot.librarby.rental.repository;
+
+import agh.oot.librarby.book.model.Book;
+import agh.oot.librarby.rental.model.ArchivedRental;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+class ArchivedRentalSearchRepositoryImpl implements ArchivedRentalSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<RentalRow> findPage(Specification<ArchivedRental> spec, Instant afterRentedAt, Long afterId, int limit) {
+        return query(spec, afterRentedAt, afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public void forEach(Specification<ArchivedRental> spec, Consumer<RentalRow> action) {
+        TypedQuery<RentalRow> query = query(spec, null, null)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, Integer.MIN_VALUE);
+
+        try (Stream<RentalRow> rows = query.getResultStream()) {
+            rows.forEach(action);
+        }
+    }
+
+    private TypedQuery<RentalRow> query(Specification<ArchivedRental> spec, Instant afterRentedAt, Long afterId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RentalRow> query = cb.createQuery(RentalRow.class);
+        Root<ArchivedRental> root = query.from(ArchivedRental.class);
+        Join<ArchivedRental, Book> book = root.join("book");
+
+        // archived rentals are returned, so never overdue
+        query.select(cb.construct(RentalRow.class,
+                root.get("id"),
+                root.get("readerId"),
+                root.get("copyId"),
+                root.get("editionId"),
+                root.get("bookId"),
+                book.get("title"),
+                root.get("status"),
+                root.get("dueDate"),
+                root.get("rentedAt"),
+                root.get("returnedAt"),
+                cb.literal(false)));
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filter = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (filter != null) {
+            predicates.add(filter);
+        }
+
+        Path<Instant> rentedAt = root.get("rentedAt");
+        Path<Long> id = root.get("id");
+        if (afterRentedAt != null && afterId != null) {
+            predicates.add(cb.or(cb.lessThan(rentedAt, afterRentedAt),
+                    cb.and(cb.equal(rentedAt, afterRentedAt), cb.lessThan(id, afterId))));
+        }
+
+        query.where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.desc(rentedAt), cb.desc(id));
+
+        return entityManager.createQuery(query);
+    }
+}
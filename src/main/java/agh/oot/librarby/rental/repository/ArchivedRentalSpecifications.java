@@ -0,0 +1,25 @@
+package agh.oot.librarby.rental.repository;
+
+import agh.oot.librarby.rental.model.ArchivedRental;
+import agh.oot.librarby.rental.model.RentalStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class ArchivedRentalSpecifications {
+
+    private ArchivedRentalSpecifications() {}
+
+    public static Specification<ArchivedRental> hasReaderId(Long readerId) {
+        return (root, query, cb) ->
+                readerId == null ? null : cb.equal(root.get("readerId"), readerId);
+    }
+
+    public static Specification<ArchivedRental> hasBookId(Long bookId) {
+        return (root, query, cb) ->
+                bookId == null ? null : cb.equal(root.get("bookId"), bookId);
+    }
+
+    public static Specification<ArchivedRental> hasStatus(RentalStatus status) {
+        return (root, query, cb) ->
+                status == null ? null : cb.equal(root.get("status"), status);
+    }
+}
@@ -0,0 +1,19 @@
+package agh.oot.librarby.rental.repository;
+
+import agh.oot.librarby.rental.model.Rental;
+
+import java.util.List;
+
+/**
+ * Inserts new rentals in a single JDBC batch. Rental ids are IDENTITY generated, which keeps Hibernate
+ * from batching their inserts, so bulk checkouts write the rows directly.
+ */
+public interface RentalBatchInsertRepository {
+
+    /**
+     * Inserts the rentals and returns them as listing rows carrying the generated ids, in the same order.
+     * The rentals are written straight to the table: they do not become managed entities and their
+     * {@code @PrePersist} callback does not run. Must run inside a transaction.
+     */
+    List<RentalRow> insertAll(List<Rental> rentals);
+}
@@ -0,0 +1,88 @@
+package agh.oot.librarby.rental.repository;
+
+import agh.oot.librarby.book.model.BookEdition;
+import agh.oot.librarby.book.model.ExactBookCopy;
+import agh.oot.librarby.rental.model.Rental;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+class RentalBatchInsertRepositoryImpl implements RentalBatchInsertRepository {
+
+    private static final String INSERT = """
+            insert into rentals (copy_id, reader_id, rented_at, book_id, edition_id, due_date, returned_at, status, overdue)
+            values (?, ?, ?, ?, ?, ?, null, ?, false)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    RentalBatchInsertRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<RentalRow> insertAll(List<Rental> rentals) {
+        if (rentals.isEmpty()) {
+            return List.of();
+        }
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        // with rewriteBatchedStatements on the JDBC URL, Connector/J sends the batch as multi-row inserts
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        bind(ps, rentals.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rentals.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        if (generated.size() != rentals.size()) {
+            throw new IllegalStateException("Expected " + rentals.size() + " generated rental ids, got " + generated.size());
+        }
+
+        List<RentalRow> rows = new ArrayList<>(rentals.size());
+        for (int i = 0; i < rentals.size(); i++) {
+            Long id = ((Number) generated.get(i).values().iterator().next()).longValue();
+            rows.add(toRow(id, rentals.get(i)));
+        }
+        return rows;
+    }
+
+    private static void bind(PreparedStatement ps, Rental rental) throws SQLException {
+        ExactBookCopy copy = rental.getExactBookCopy();
+        BookEdition edition = copy.getBookEdition();
+        ps.setLong(1, copy.getId());
+        ps.setLong(2, rental.getReader().getId());
+        // same binding Hibernate uses for Instant on MySQL: UTC wall-clock time in a datetime column
+        ps.setTimestamp(3, Timestamp.from(rental.getRentedAt()), Calendar.getInstance(TimeZone.getTimeZone("UTC")));
+        ps.setLong(4, edition.getBook().getId());
+        ps.setLong(5, edition.getId());
+        ps.setDate(6, Date.valueOf(rental.getDueDate()));
+        ps.setString(7, rental.getStatus().name());
+    }
+
+    private static RentalRow toRow(Long id, Rental rental) {
+        ExactBookCopy copy = rental.getExactBookCopy();
+        BookEdition edition = copy.getBookEdition();
+        return new RentalRow(id, rental.getReader().getId(), copy.getId(), edition.getId(), edition.getBook().getId(),
+                edition.getBook().getTitle(), rental.getStatus(), rental.getDueDate(), rental.getRentedAt(), null, false);
+    }
+}
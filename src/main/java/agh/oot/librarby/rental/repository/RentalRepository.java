@@ -1,18 +1,22 @@
 package agh.oot.librarby.rental.repository;
 
 import agh.oot.librarby.rental.model.Rental;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface RentalRepository extends JpaRepository<Rental, Long>, JpaSpecificationExecutor<Rental> {
-
-    @EntityGraph(value = "Rental.withDetails")
-    List<Rental> findAll(Specification<Rental> spec);
+public interface RentalRepository extends JpaRepository<Rental, Long>, JpaSpecificationExecutor<Rental>,
+        RentalSearchRepository, RentalBatchInsertRepository {
 
     @Override
     @EntityGraph(value = "Rental.withDetails")
@@ -21,4 +25,75 @@ public interface RentalRepository extends JpaRepository<Rental, Long>, JpaSpecif
     @Override
     @EntityGraph(value = "Rental.withDetails")
     Optional<Rental> findById(Long id);
+
+    // A single rental as a listing row, without loading any entity
+    @Query("""
+            select new agh.oot.librarby.rental.repository.RentalRow(
+                r.id, r.reader.id, c.id, e.id, b.id, b.title, r.status, r.dueDate, r.rentedAt, r.returnedAt, r.overdue)
+            from Rental r join r.exactBookCopy c join c.bookEdition e join e.book b
+            where r.id = :id
+            """)
+    Optional<RentalRow> findRowById(@Param("id") Long id);
+
+    @EntityGraph(value = "Rental.withDetails")
+    @Query("select r from Rental r where r.exactBookCopy.id in :copyIds and r.returnedAt is null")
+    List<Rental> findActiveByCopyIdIn(@Param("copyIds") Collection<Long> copyIds);
+
+    // Backfill of the denormalized book_id / edition_id of rentals created before those columns existed
+
+    @Query("select r.id from Rental r where r.bookId is null order by r.id")
+    List<Long> findIdsWithoutBookId(Pageable pageable);
+
+    @Modifying
+    @Query(value = """
+            update rentals r
+            join exact_book_copies c on c.id = r.copy_id
+            join book_editions e on e.id = c.book_edition_id
+            set r.edition_id = e.id, r.book_id = e.book_id
+            where r.id in (:ids) and r.book_id is null
+            """, nativeQuery = true)
+    int backfillBookIds(@Param("ids") Collection<Long> ids);
+
+    // Archival of long-returned rentals, see ArchivedRentalRepository#copyFromRentals
+
+    @Query("select r.id from Rental r where r.returnedAt < :cutoff order by r.returnedAt")
+    List<Long> findIdsReturnedBefore(@Param("cutoff") Instant cutoff, Pageable pageable);
+
+    // Deletes only rows already present in the archive, so nothing is lost if the copy skipped a row
+    @Modifying
+    @Query(value = "delete r from rentals r join rentals_archive a on a.id = r.id where r.id in (:ids)", nativeQuery = true)
+    int deleteArchived(@Param("ids") Collection<Long> ids);
+
+    // Overdue queries below filter on (returned_at, due_date) first, matching idx_rentals_returned_at_due_date
+
+    @Query("""
+            select r.id from Rental r
+            where r.returnedAt is null and r.dueDate < :today and r.overdue = false
+            order by r.dueDate, r.id
+            """)
+    List<Long> findNewlyOverdueIds(@Param("today") LocalDate today, Pageable pageable);
+
+    @Modifying
+    @Query("update Rental r set r.overdue = true where r.id in :ids and r.returnedAt is null")
+    int markOverdue(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(value = "Rental.withDetails")
+    @Query("""
+            select r from Rental r
+            where r.returnedAt is null and r.dueDate < :today
+            order by r.dueDate, r.id
+            """)
+    List<Rental> findOverdue(@Param("today") LocalDate today, Pageable pageable);
+
+    @EntityGraph(value = "Rental.withDetails")
+    @Query("""
+            select r from Rental r
+            where r.returnedAt is null and r.dueDate < :today
+              and (r.dueDate > :afterDueDate or (r.dueDate = :afterDueDate and r.id > :afterId))
+            order by r.dueDate, r.id
+            """)
+    List<Rental> findOverdueAfter(@Param("today") LocalDate today,
+                                  @Param("afterDueDate") LocalDate afterDueDate,
+                                  @Param("afterId") Long afterId,
+                                  Pageable pageable);
 }
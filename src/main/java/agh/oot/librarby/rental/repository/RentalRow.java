@@ -0,0 +1,25 @@
+package agh.oot.librarby.rental.repository;
+
+import agh.oot.librarby.rental.model.RentalStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * The columns a rental listing needs, selected directly by constructor projection
+ * instead of hydrating the rental, reader, copy, edition and book entities.
+ */
+public record RentalRow(
+        Long id,
+        Long readerId,
+        Long copyId,
+        Long editionId,
+        Long bookId,
+        String bookTitle,
+        RentalStatus status,
+        LocalDate dueDate,
+        Instant rentedAt,
+        Instant returnedAt,
+        Boolean overdue
+) {
+}
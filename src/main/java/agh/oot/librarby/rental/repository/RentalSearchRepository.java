@@ -0,0 +1,27 @@
+package agh.oot.librarby.rental.repository;
+
+import agh.oot.librarby.rental.model.Rental;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Rental listing ordered by {@code (rentedAt, id)}, newest first, in bounded pages or as a stream.
+ * Returns {@link RentalRow} projections, so no entities end up in the persistence context.
+ */
+public interface RentalSearchRepository {
+
+    /**
+     * Returns up to {@code limit} rentals matching {@code spec} that come after the given key
+     * ({@code null} key for the first page).
+     */
+    List<RentalRow> findPage(Specification<Rental> spec, Instant afterRentedAt, Long afterId, int limit);
+
+    /**
+     * Passes every rental matching {@code spec} to {@code action}, reading them through a forward-only
+     * JDBC cursor. Must run inside a transaction.
+     */
+    void forEach(Specification<Rental> spec, Consumer<RentalRow> action);
+}
@@ -29,12 +29,8 @@ public final class RentalSpecifications {
         return (root, query, cb) -> {
             if (bookId == null) return null;
 
-            // rental -> exactBookCopy -> bookEdition -> book -> id
-            var copyJoin = root.join("exactBookCopy");
-            var editionJoin = copyJoin.join("bookEdition");
-            var bookJoin = editionJoin.join("book");
-
-            return cb.equal(bookJoin.get("id"), bookId);
+            // denormalized rentals.book_id, served by idx_rentals_book_rented_at without joining the copy
+            return cb.equal(root.get("bookId"), bookId);
         };
     }
 }
@@ -0,0 +1,65 @@
+package agh.oot.librarby.rental.service;
+
+import agh.oot.librarby.user.repository.ReaderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Fills in {@code readers.active_loan_count} for readers whose loans were made before the counter existed,
+ * so the rental limit counts their existing loans from the first request on.
+ *
+ * <p>Runs on startup, after Hibernate has added the column, and finishes before the application reports ready.
+ * Only readers with unreturned rentals and a zero counter are selected, through the {@code returned_at} index,
+ * so once done it updates nothing. One batch per short transaction; recounting is idempotent, so instances
+ * starting together do no harm. Later drift is corrected by {@link ActiveLoanCountReconciler}.
+ */
+@Component
+public class ActiveLoanCountBackfill implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveLoanCountBackfill.class);
+
+    private final ReaderRepository readerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ActiveLoanCountBackfill(ReaderRepository readerRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${app.rentals.loan-count-backfill.batch-size:1000}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.readerRepository = readerRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(String... args) {
+        int filled = 0;
+        int selected;
+        do {
+            List<Long> ids = readerRepository.findIdsWithUncountedLoans(PageRequest.of(0, batchSize));
+            selected = ids.size();
+            if (selected > 0) {
+                Integer updated = transactionTemplate.execute(status -> readerRepository.countActiveLoans(ids));
+                if (updated == null || updated == 0) {
+                    // readers whose counter cannot be set would be selected again forever
+                    log.warn("ActiveLoanCountBackfill: could not count the loans of {} readers", selected);
+                    break;
+                }
+                filled += updated;
+            }
+        } while (selected == batchSize);
+
+        if (filled > 0) {
+            log.info("ActiveLoanCountBackfill: filled in the active loan count of {} readers", filled);
+        }
+    }
+}
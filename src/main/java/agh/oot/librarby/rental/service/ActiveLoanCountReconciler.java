@@ -0,0 +1,80 @@
+package agh.oot.librarby.rental.service;
+
+import agh.oot.librarby.lease.JobLeaseService;
+import agh.oot.librarby.user.repository.ReaderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Periodically recomputes {@code readers.active_loan_count} from the unreturned rentals, correcting counters
+ * that drifted (rentals changed outside the application). Counters of loans made before the column existed are
+ * filled in on startup by {@link ActiveLoanCountBackfill}, so the first run can wait a full interval.
+ *
+ * <p>Walks the readers in id order; each batch is a single update in its own short transaction, so row locks
+ * are held only briefly. Only the node holding the {@value #LEASE} lease runs, renewing it before every batch.
+ */
+@Component
+public class ActiveLoanCountReconciler {
+
+    static final String LEASE = "reader-loan-count-reconciliation";
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveLoanCountReconciler.class);
+
+    private final ReaderRepository readerRepository;
+    private final JobLeaseService jobLeaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration leaseDuration;
+
+    public ActiveLoanCountReconciler(ReaderRepository readerRepository,
+                                     JobLeaseService jobLeaseService,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${app.rentals.loan-count-reconciliation.batch-size:1000}") int batchSize,
+                                     @Value("${app.rentals.loan-count-reconciliation.lease:PT10M}") Duration leaseDuration) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.readerRepository = readerRepository;
+        this.jobLeaseService = jobLeaseService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.leaseDuration = leaseDuration;
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.rentals.loan-count-reconciliation.initial-delay:PT6H}",
+            fixedDelayString = "${app.rentals.loan-count-reconciliation.interval:PT6H}"
+    )
+    public void reconcile() {
+        long afterId = 0;
+        int corrected = 0;
+        int selected = batchSize;
+        try {
+            while (selected == batchSize && jobLeaseService.tryAcquire(LEASE, leaseDuration)) {
+                List<Long> ids = readerRepository.findIdsAfter(afterId, PageRequest.of(0, batchSize));
+                selected = ids.size();
+                if (selected > 0) {
+                    Long fromId = ids.getFirst();
+                    Long toId = ids.getLast();
+                    Integer updated = transactionTemplate.execute(status -> readerRepository.reconcileActiveLoanCounts(fromId, toId));
+                    corrected += updated != null ? updated : 0;
+                    afterId = toId;
+                }
+            }
+        } finally {
+            jobLeaseService.release(LEASE);
+        }
+
+        if (corrected > 0) {
+            log.warn("ActiveLoanCountReconciler: corrected the active loan count of {} readers", corrected);
+        }
+    }
+}
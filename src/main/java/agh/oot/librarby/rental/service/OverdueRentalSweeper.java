@@ -0,0 +1,87 @@
+package agh.oot.librarby.rental.service;
+
+import agh.oot.librarby.lease.JobLeaseService;
+import agh.oot.librarby.rental.repository.RentalRepository;
+import agh.oot.librarby.stats.service.CirculationStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Periodically flags active rentals that have passed their due date as overdue.
+ *
+ * <p>Works incrementally: only rentals that are active, past due and not flagged yet are selected,
+ * through the {@code (returned_at, due_date)} index, and each batch is flagged in its own short transaction.
+ * Flagged rentals drop out of the selection, so no cursor is needed and a run can stop at any point.
+ * Returning or extending a rental clears the flag again (see {@link RentalServiceImpl}).
+ * Only the node holding the {@value #LEASE} lease runs, renewing it before every batch.
+ */
+@Component
+public class OverdueRentalSweeper {
+
+    static final String LEASE = "rental-overdue-sweep";
+
+    private static final Logger log = LoggerFactory.getLogger(OverdueRentalSweeper.class);
+
+    private final RentalRepository rentalRepository;
+    private final JobLeaseService jobLeaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final CirculationStats circulationStats;
+    private final int batchSize;
+    private final Duration leaseDuration;
+
+    public OverdueRentalSweeper(RentalRepository rentalRepository,
+                                JobLeaseService jobLeaseService,
+                                TransactionTemplate transactionTemplate,
+                                CirculationStats circulationStats,
+                                @Value("${app.rentals.overdue-sweep.batch-size:500}") int batchSize,
+                                @Value("${app.rentals.overdue-sweep.lease:PT10M}") Duration leaseDuration) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.rentalRepository = rentalRepository;
+        this.jobLeaseService = jobLeaseService;
+        this.transactionTemplate = transactionTemplate;
+        this.circulationStats = circulationStats;
+        this.batchSize = batchSize;
+        this.leaseDuration = leaseDuration;
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.rentals.overdue-sweep.initial-delay:PT1M}",
+            fixedDelayString = "${app.rentals.overdue-sweep.interval:PT15M}"
+    )
+    public void sweep() {
+        LocalDate today = LocalDate.now();
+        int flagged = 0;
+        int selected = batchSize;
+        try {
+            while (selected == batchSize && jobLeaseService.tryAcquire(LEASE, leaseDuration)) {
+                List<Long> ids = rentalRepository.findNewlyOverdueIds(today, PageRequest.of(0, batchSize));
+                selected = ids.size();
+                if (selected > 0) {
+                    Integer updated = transactionTemplate.execute(status -> {
+                        int marked = rentalRepository.markOverdue(ids);
+                        circulationStats.overdueLoansChanged(marked);
+                        return marked;
+                    });
+                    flagged += updated != null ? updated : 0;
+                }
+            }
+        } finally {
+            jobLeaseService.release(LEASE);
+        }
+
+        if (flagged > 0) {
+            log.info("OverdueRentalSweeper: flagged {} rentals as overdue", flagged);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package agh.oot.librarby.rental.service;
+
+import agh.oot.librarby.lease.JobLeaseService;
+import agh.oot.librarby.rental.repository.ArchivedRentalRepository;
+import agh.oot.librarby.rental.repository.RentalRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Moves rentals returned more than {@code app.rentals.archive.retention-months} ago from {@code rentals}
+ * into {@code rentals_archive}, keeping the hot table down to active and recently returned rentals.
+ *
+ * <p>Each batch is copied and deleted in one short transaction, with a pause between batches so the archival
+ * does not compete with checkouts and returns. Only the node holding the {@value #LEASE} lease runs,
+ * renewing it before every batch.
+ */
+@Component
+public class RentalArchiver {
+
+    static final String LEASE = "rental-archival";
+
+    private static final Logger log = LoggerFactory.getLogger(RentalArchiver.class);
+
+    private final RentalRepository rentalRepository;
+    private final ArchivedRentalRepository archivedRentalRepository;
+    private final JobLeaseService jobLeaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionMonths;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final Duration leaseDuration;
+
+    public RentalArchiver(RentalRepository rentalRepository,
+                          ArchivedRentalRepository archivedRentalRepository,
+                          JobLeaseService jobLeaseService,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${app.rentals.archive.retention-months:24}") int retentionMonths,
+                          @Value("${app.rentals.archive.batch-size:500}") int batchSize,
+                          @Value("${app.rentals.archive.batch-pause:PT0.2S}") Duration batchPause,
+                          @Value("${app.rentals.archive.lease:PT10M}") Duration leaseDuration) {
+        if (retentionMonths <= 0) {
+            throw new IllegalArgumentException("retentionMonths must be positive");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.rentalRepository = rentalRepository;
+        this.archivedRentalRepository = archivedRentalRepository;
+        this.jobLeaseService = jobLeaseService;
+        this.transactionTemplate = transactionTemplate;
+        this.retentionMonths = retentionMonths;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.leaseDuration = leaseDuration;
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.rentals.archive.initial-delay:PT5M}",
+            fixedDelayString = "${app.rentals.archive.interval:PT6H}"
+    )
+    public void archive() {
+        Instant now = Instant.now();
+        Instant cutoff = now.atOffset(ZoneOffset.UTC).minusMonths(retentionMonths).toInstant();
+        int archived = 0;
+        int selected = batchSize;
+        try {
+            while (selected == batchSize && jobLeaseService.tryAcquire(LEASE, leaseDuration)) {
+                List<Long> ids = rentalRepository.findIdsReturnedBefore(cutoff, PageRequest.of(0, batchSize));
+                selected = ids.size();
+                if (selected == 0) {
+                    break;
+                }
+
+                Integer moved = transactionTemplate.execute(status -> {
+                    archivedRentalRepository.copyFromRentals(ids, now);
+                    return rentalRepository.deleteArchived(ids);
+                });
+                if (moved == null || moved == 0) {
+                    // rows that cannot be copied would be selected again forever
+                    break;
+                }
+                archived += moved;
+
+                if (selected == batchSize && !pause()) {
+                    break;
+                }
+            }
+        } finally {
+            jobLeaseService.release(LEASE);
+        }
+
+        if (archived > 0) {
+            log.info("RentalArchiver: archived {} rentals returned before {}", archived, cutoff);
+        }
+    }
+
+    private boolean pause() {
+        if (batchPause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(batchPause);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
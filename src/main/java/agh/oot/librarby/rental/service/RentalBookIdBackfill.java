@@ -0,0 +1,64 @@
+package agh.oot.librarby.rental.service;
+
+import agh.oot.librarby.rental.repository.RentalRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Fills in {@code rentals.book_id} and {@code rentals.edition_id} for rentals created before those columns existed,
+ * so the book filter of the rental listing, which reads only {@code book_id}, covers them too.
+ *
+ * <p>Runs on startup, after Hibernate has added the columns, and finishes before the application reports ready;
+ * new rentals get the ids on insert, so once done it updates nothing. Works through the rentals in id order,
+ * one batch per short transaction. Filling a row is idempotent, so instances starting together do no harm.
+ */
+@Component
+public class RentalBookIdBackfill implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(RentalBookIdBackfill.class);
+
+    private final RentalRepository rentalRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public RentalBookIdBackfill(RentalRepository rentalRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${app.rentals.book-id-backfill.batch-size:1000}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.rentalRepository = rentalRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(String... args) {
+        int filled = 0;
+        int selected;
+        do {
+            List<Long> ids = rentalRepository.findIdsWithoutBookId(PageRequest.of(0, batchSize));
+            selected = ids.size();
+            if (selected > 0) {
+                Integer updated = transactionTemplate.execute(status -> rentalRepository.backfillBookIds(ids));
+                if (updated == null || updated == 0) {
+                    // rows that cannot be joined to a copy would be selected again forever
+                    log.warn("RentalBookIdBackfill: {} rentals could not be matched to a book", selected);
+                    break;
+                }
+                filled += updated;
+            }
+        } while (selected == batchSize);
+
+        if (filled > 0) {
+            log.info("RentalBookIdBackfill: filled in the book and edition of {} rentals", filled);
+        }
+    }
+}
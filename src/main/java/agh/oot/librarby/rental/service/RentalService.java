@@ -1,20 +1,39 @@
 package agh.oot.librarby.rental.service;
 
+import agh.oot.librarby.rental.dto.BulkCheckoutRequest;
+import agh.oot.librarby.rental.dto.BulkRentalResponse;
+import agh.oot.librarby.rental.dto.BulkReturnRequest;
 import agh.oot.librarby.rental.dto.CreateRentalRequest;
 import agh.oot.librarby.rental.dto.ExtendRentalRequest;
 import agh.oot.librarby.rental.dto.MultipleRentalsResponse;
 import agh.oot.librarby.rental.dto.RentalResponse;
 import agh.oot.librarby.rental.model.RentalStatus;
 
+import java.util.function.Consumer;
+
 public interface RentalService {
 
     /**
-     * List rentals with optional filters.
+     * List rentals with optional filters, newest first.
+     * Keyset paginated on (rentedAt, id): pass the returned nextCursor to get the following page.
      * readerId is handled by controller authorization:
      *  - ADMIN/LIBRARIAN: any readerId or none
      *  - READER: allowed only if readerId == principal.id (and readerId must be provided)
      */
-    MultipleRentalsResponse getRentals(Long readerId, Long bookId, RentalStatus status, Boolean active);
+    MultipleRentalsResponse getRentals(Long readerId, Long bookId, RentalStatus status, Boolean active,
+                                       Integer limit, String cursor);
+
+    /**
+     * Pass every rental matching the filters to {@code consumer}, newest first, in constant memory.
+     * Same filters and authorization rules as {@link #getRentals}.
+     */
+    void exportRentals(Long readerId, Long bookId, RentalStatus status, Boolean active, Consumer<RentalResponse> consumer);
+
+    /**
+     * List rentals that are not returned and past their due date, most overdue first.
+     * Keyset paginated: pass the returned nextCursor to get the following page.
+     */
+    MultipleRentalsResponse getOverdueRentals(Integer limit, String cursor);
 
     /**
      * Get one rental by its id.
@@ -31,6 +50,17 @@ public interface RentalService {
      */
     RentalResponse createRental(CreateRentalRequest request);
 
+    /**
+     * Rent several exact book copies to one reader in a single transaction.
+     * Business rules:
+     *  - same rules as {@link #createRental(CreateRentalRequest)} for every copy
+     *  - all copies are loaded with one query and validated before anything is written
+     *  - ALL_OR_NOTHING: if any copy fails, no rental is created
+     *  - PARTIAL: rentals are created for the valid copies only
+     *  - results are reported per copy, in request order
+     */
+    BulkRentalResponse createRentals(BulkCheckoutRequest request);
+
     /**
      * Mark rental as returned (idempotency is NOT allowed: returning twice is an error).
      * Business rules:
@@ -38,9 +68,20 @@ public interface RentalService {
      *  - sets returnedAt
      *  - sets rental status to ON_TIME or LATE based on dueDate
      *  - sets copy status to AVAILABLE
+     *  - offers the copy to the oldest PENDING reservation for its book, if any (copy becomes RESERVED)
      */
     RentalResponse returnRental(Long rentalId);
 
+    /**
+     * Return several exact book copies at once, e.g. from the book drop.
+     * Business rules:
+     *  - copies are identified by copy id; their active rentals are resolved with one query
+     *  - each active rental is returned as in {@link #returnRental(Long)}
+     *  - copies without an active rental are reported and skipped, the others are still returned
+     *  - results are reported per copy, in request order
+     */
+    BulkRentalResponse returnRentals(BulkReturnRequest request);
+
     /**
      * Extend rental due date. Only extending is allowed.
      * Business rules:
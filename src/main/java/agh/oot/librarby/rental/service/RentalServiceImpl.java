@@ -3,17 +3,32 @@ package agh.oot.librarby.rental.service;
 import agh.oot.librarby.book.model.CopyStatus;
 import agh.oot.librarby.book.model.ExactBookCopy;
 import agh.oot.librarby.book.repository.ExactBookCopyRepository;
+import agh.oot.librarby.concurrency.ConflictRetrier;
+import agh.oot.librarby.pagination.CursorCodec;
+import agh.oot.librarby.rental.dto.BulkCheckoutRequest;
+import agh.oot.librarby.rental.dto.BulkItemResult;
+import agh.oot.librarby.rental.dto.BulkItemStatus;
+import agh.oot.librarby.rental.dto.BulkMode;
+import agh.oot.librarby.rental.dto.BulkRentalResponse;
+import agh.oot.librarby.rental.dto.BulkReturnRequest;
 import agh.oot.librarby.rental.dto.CreateRentalRequest;
 import agh.oot.librarby.rental.dto.ExtendRentalRequest;
 import agh.oot.librarby.rental.dto.MultipleRentalsResponse;
 import agh.oot.librarby.rental.dto.RentalResponse;
 import agh.oot.librarby.rental.mapper.RentalResponseMapper;
+import agh.oot.librarby.rental.model.ArchivedRental;
 import agh.oot.librarby.rental.model.Rental;
 import agh.oot.librarby.rental.model.RentalStatus;
+import agh.oot.librarby.rental.repository.ArchivedRentalRepository;
+import agh.oot.librarby.rental.repository.ArchivedRentalSpecifications;
 import agh.oot.librarby.rental.repository.RentalRepository;
+import agh.oot.librarby.rental.repository.RentalRow;
 import agh.oot.librarby.rental.repository.RentalSpecifications;
+import agh.oot.librarby.reservation.service.ReservationService;
+import agh.oot.librarby.stats.service.CirculationStats;
 import agh.oot.librarby.user.model.Reader;
 import agh.oot.librarby.user.repository.ReaderRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -22,63 +37,154 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 
 @Service
 public class RentalServiceImpl implements RentalService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final RentalRepository rentalRepository;
+    private final ArchivedRentalRepository archivedRentalRepository;
     private final ExactBookCopyRepository exactBookCopyRepository;
     private final ReaderRepository readerRepository;
     private final RentalResponseMapper rentalResponseMapper;
+    private final ReservationService reservationService;
+    private final ConflictRetrier conflictRetrier;
+    private final CirculationStats circulationStats;
 
 
     public RentalServiceImpl(
             RentalRepository rentalRepository,
+            ArchivedRentalRepository archivedRentalRepository,
             ExactBookCopyRepository exactBookCopyRepository,
             ReaderRepository readerRepository,
-            RentalResponseMapper rentalResponseMapper
+            RentalResponseMapper rentalResponseMapper,
+            ReservationService reservationService,
+            ConflictRetrier conflictRetrier,
+            CirculationStats circulationStats
     ) {
         this.rentalRepository = rentalRepository;
+        this.archivedRentalRepository = archivedRentalRepository;
         this.exactBookCopyRepository = exactBookCopyRepository;
         this.readerRepository = readerRepository;
         this.rentalResponseMapper = rentalResponseMapper;
+        this.reservationService = reservationService;
+        this.conflictRetrier = conflictRetrier;
+        this.circulationStats = circulationStats;
     }
 
 
     @Override
-    public MultipleRentalsResponse getRentals(Long readerId, Long bookId, RentalStatus status, Boolean active) {
-        Specification<Rental> spec = Stream.of(
-                        RentalSpecifications.hasReaderId(readerId),
-                        RentalSpecifications.hasBookId(bookId),
-                        RentalSpecifications.hasStatus(status),
-                        RentalSpecifications.isActive(active)
-                )
-                .filter(Objects::nonNull)
-                .reduce(Specification::and)
-                .orElse(null);
+    @Transactional(readOnly = true)
+    public MultipleRentalsResponse getRentals(Long readerId, Long bookId, RentalStatus status, Boolean active,
+                                              Integer limit, String cursor) {
+        int size = resolveLimit(limit);
+
+        Instant afterRentedAt = null;
+        Long afterId = null;
+        if (cursor != null) {
+            List<String> key = CursorCodec.decode(cursor, 2);
+            try {
+                afterRentedAt = Instant.parse(key.get(0));
+                afterId = Long.valueOf(key.get(1));
+            } catch (DateTimeParseException | NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid cursor", ex);
+            }
+        }
+
+        // one extra row tells whether there is a next page
+        List<RentalRow> rentals = rentalRepository.findPage(rentalSpec(readerId, bookId, status, active), afterRentedAt, afterId, size + 1);
+        if (mayBeArchived(status, active) && archiveReaches(rentals, size + 1)) {
+            List<RentalRow> archived = archivedRentalRepository.findPage(archivedRentalSpec(readerId, bookId, status),
+                    afterRentedAt, afterId, size + 1);
+            rentals = merge(rentals, archived, size + 1);
+        }
+        boolean hasNext = rentals.size() > size;
+        if (hasNext) {
+            rentals = rentals.subList(0, size);
+        }
 
-        List<RentalResponse> rentals = rentalRepository.findAll(spec).stream()
+        List<RentalResponse> dtos = rentals.stream()
                 .map(rentalResponseMapper::toDto)
                 .toList();
+        String nextCursor = hasNext ? CursorCodec.encode(rentals.getLast().rentedAt(), rentals.getLast().id()) : null;
+        return new MultipleRentalsResponse(dtos, nextCursor);
+    }
 
-        return new MultipleRentalsResponse(rentals);
+    @Override
+    @Transactional(readOnly = true)
+    public void exportRentals(Long readerId, Long bookId, RentalStatus status, Boolean active, Consumer<RentalResponse> consumer) {
+        rentalRepository.forEach(rentalSpec(readerId, bookId, status, active),
+                row -> consumer.accept(rentalResponseMapper.toDto(row)));
+        // archived rentals follow, newest first as well; one streaming cursor per connection rules out a merge
+        if (mayBeArchived(status, active)) {
+            archivedRentalRepository.forEach(archivedRentalSpec(readerId, bookId, status),
+                    row -> consumer.accept(rentalResponseMapper.toDto(row)));
+        }
+    }
+
+    @Override
+    public MultipleRentalsResponse getOverdueRentals(Integer limit, String cursor) {
+        int size = resolveLimit(limit);
+        LocalDate today = LocalDate.now();
+        PageRequest page = PageRequest.of(0, size + 1);
+
+        List<Rental> rentals;
+        if (cursor == null) {
+            rentals = rentalRepository.findOverdue(today, page);
+        } else {
+            List<String> key = CursorCodec.decode(cursor, 2);
+            try {
+                rentals = rentalRepository.findOverdueAfter(today, LocalDate.parse(key.get(0)), Long.valueOf(key.get(1)), page);
+            } catch (DateTimeParseException | NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid cursor", ex);
+            }
+        }
+
+        boolean hasNext = rentals.size() > size;
+        if (hasNext) {
+            rentals = rentals.subList(0, size);
+        }
+
+        List<RentalResponse> dtos = rentals.stream()
+                .map(rentalResponseMapper::toDto)
+                .toList();
+        String nextCursor = hasNext ? CursorCodec.encode(rentals.getLast().getDueDate(), rentals.getLast().getId()) : null;
+        return new MultipleRentalsResponse(dtos, nextCursor);
     }
 
     @Override
     public RentalResponse getRentalById(Long rentalId) {
-        Rental rental = rentalRepository.findById(rentalId)
+        RentalRow rental = rentalRepository.findRowById(rentalId)
+                .or(() -> archivedRentalRepository.findRowById(rentalId))
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Rental not found"));
 
         return rentalResponseMapper.toDto(rental);
     }
 
     @Override
-    @Transactional
     public RentalResponse createRental(CreateRentalRequest request) {
+        // the copy is version-checked, so two desks lending it at once cannot both succeed
+        return conflictRetrier.execute("checkout", () -> checkout(request));
+    }
+
+    private RentalResponse checkout(CreateRentalRequest request) {
         Reader reader = readerRepository.findById(request.readerId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Reader not found"));
 
@@ -98,6 +204,11 @@ public class RentalServiceImpl implements RentalService {
             throw new IllegalArgumentException("Due date must be in the future");
         }
 
+        // Limit check and counter increment in one conditional update, no count(*) over rentals
+        if (readerRepository.tryTakeLoanSlots(reader.getId(), 1) == 0) {
+            throw new IllegalStateException("Reader has reached the rental limit of " + reader.getRentalLimit() + " active rentals");
+        }
+
         // Business transition: copy becomes borrowed
         copy.setStatus(CopyStatus.BORROWED);
 
@@ -105,10 +216,89 @@ public class RentalServiceImpl implements RentalService {
 
         // Save order: saving rental will persist FK to copy/reader; copy status update is in same TX
         Rental saved = rentalRepository.save(rental);
+        circulationStats.copyStatusChanged(CopyStatus.AVAILABLE, CopyStatus.BORROWED);
+        circulationStats.loansOpened(1);
 
         return rentalResponseMapper.toDto(saved);
     }
 
+    @Override
+    public BulkRentalResponse createRentals(BulkCheckoutRequest request) {
+        return conflictRetrier.execute("bulk checkout", () -> bulkCheckout(request));
+    }
+
+    private BulkRentalResponse bulkCheckout(BulkCheckoutRequest request) {
+        Reader reader = readerRepository.findById(request.readerId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Reader not found"));
+
+        LocalDate dueDate = request.dueDate();
+        if (dueDate == null || !dueDate.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Due date must be in the future");
+        }
+
+        // One query for all copies instead of one lookup per item
+        Map<Long, ExactBookCopy> copies = exactBookCopyRepository.findByIdIn(new HashSet<>(request.copyIds())).stream()
+                .collect(Collectors.toMap(ExactBookCopy::getId, Function.identity()));
+
+        // Validate everything before writing anything, so both modes need no savepoints
+        List<Long> copyIds = request.copyIds();
+        BulkItemResult[] results = new BulkItemResult[copyIds.size()];
+        Map<Integer, ExactBookCopy> accepted = new LinkedHashMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < copyIds.size(); i++) {
+            Long copyId = copyIds.get(i);
+            ExactBookCopy copy = copies.get(copyId);
+            if (!seen.add(copyId)) {
+                results[i] = BulkItemResult.failed(copyId, BulkItemStatus.DUPLICATE, "Exact book copy is listed more than once");
+            } else if (copy == null) {
+                results[i] = BulkItemResult.failed(copyId, BulkItemStatus.NOT_FOUND, "Exact book copy not found");
+            } else if (copy.getStatus() != CopyStatus.AVAILABLE) {
+                results[i] = BulkItemResult.failed(copyId, BulkItemStatus.NOT_AVAILABLE, "Exact book copy is not available for rental");
+            } else {
+                accepted.put(i, copy);
+            }
+        }
+
+        BulkMode mode = request.modeOrDefault();
+        if (accepted.size() < copyIds.size() && mode == BulkMode.ALL_OR_NOTHING) {
+            accepted.forEach((i, copy) -> results[i] = BulkItemResult.failed(
+                    copy.getId(), BulkItemStatus.ROLLED_BACK, "Another copy of the request could not be rented"));
+            return BulkRentalResponse.of(mode, List.of(results));
+        }
+
+        int granted = takeLoanSlots(reader, accepted.size(), mode);
+        if (granted < accepted.size()) {
+            // the earliest listed copies keep their slots
+            List<Integer> positions = new ArrayList<>(accepted.keySet());
+            for (Integer i : positions.subList(granted, positions.size())) {
+                results[i] = BulkItemResult.failed(copyIds.get(i), BulkItemStatus.LIMIT_EXCEEDED,
+                        "Reader would exceed the rental limit of " + reader.getRentalLimit() + " active rentals");
+                accepted.remove(i);
+            }
+            if (accepted.isEmpty()) {
+                return BulkRentalResponse.of(mode, List.of(results));
+            }
+        }
+
+        List<Rental> rentals = new ArrayList<>(accepted.size());
+        for (ExactBookCopy copy : accepted.values()) {
+            copy.setStatus(CopyStatus.BORROWED);
+            rentals.add(new Rental(copy, reader, dueDate, RentalStatus.ACTIVE));
+        }
+        // Rental inserts go out as one JDBC batch (IDENTITY ids keep Hibernate from batching them);
+        // copy status updates are batched by Hibernate at flush
+        List<RentalRow> saved = rentalRepository.insertAll(rentals);
+        circulationStats.copyStatusChanged(CopyStatus.AVAILABLE, CopyStatus.BORROWED, saved.size());
+        circulationStats.loansOpened(saved.size());
+
+        int next = 0;
+        for (Integer i : accepted.keySet()) {
+            results[i] = BulkItemResult.succeeded(copyIds.get(i), rentalResponseMapper.toDto(saved.get(next++)));
+        }
+
+        return BulkRentalResponse.of(mode, List.of(results));
+    }
+
     @Override
     @Transactional
     public RentalResponse returnRental(Long rentalId) {
@@ -119,23 +309,47 @@ public class RentalServiceImpl implements RentalService {
             throw new IllegalArgumentException("Rental has already been returned");
         }
 
-        // Mark return time
-        rental.setReturnedAt(Instant.now());
+        completeReturn(rental, Instant.now(), LocalDate.now());
+        readerRepository.releaseLoanSlots(rental.getReader().getId(), 1);
+        reservationService.promoteNextReservation(rental.getExactBookCopy());
 
-        // Determine status based on dueDate
+        Rental saved = rentalRepository.save(rental);
+        return rentalResponseMapper.toDto(saved);
+    }
+
+    @Override
+    @Transactional
+    public BulkRentalResponse returnRentals(BulkReturnRequest request) {
+        List<Long> copyIds = request.copyIds();
+
+        // One query for all active rentals instead of one lookup per scanned copy
+        Map<Long, Rental> activeByCopy = rentalRepository.findActiveByCopyIdIn(new HashSet<>(copyIds)).stream()
+                .collect(Collectors.toMap(rental -> rental.getExactBookCopy().getId(), Function.identity(), (first, second) -> first));
+
+        Instant now = Instant.now();
         LocalDate today = LocalDate.now();
-        if (today.isAfter(rental.getDueDate())) {
-            rental.setStatus(RentalStatus.LATE);
-        } else {
-            rental.setStatus(RentalStatus.ON_TIME);
+        List<BulkItemResult> results = new ArrayList<>(copyIds.size());
+        Set<Long> seen = new HashSet<>();
+        Map<Long, Integer> returnedPerReader = new HashMap<>();
+        for (Long copyId : copyIds) {
+            Rental rental = activeByCopy.get(copyId);
+            if (!seen.add(copyId)) {
+                results.add(BulkItemResult.failed(copyId, BulkItemStatus.DUPLICATE, "Exact book copy is listed more than once"));
+            } else if (rental == null) {
+                results.add(BulkItemResult.failed(copyId, BulkItemStatus.NOT_FOUND, "No active rental for exact book copy"));
+            } else {
+                // Managed entities: rental and copy updates are flushed as JDBC batches at commit
+                completeReturn(rental, now, today);
+                returnedPerReader.merge(rental.getReader().getId(), 1, Integer::sum);
+                reservationService.promoteNextReservation(rental.getExactBookCopy());
+                results.add(BulkItemResult.succeeded(copyId, rentalResponseMapper.toDto(rental)));
+            }
         }
 
-        // Business transition: copy becomes available again
-        ExactBookCopy copy = rental.getExactBookCopy();
-        copy.setStatus(CopyStatus.AVAILABLE);
+        // one counter update per reader rather than per returned copy
+        returnedPerReader.forEach(readerRepository::releaseLoanSlots);
 
-        Rental saved = rentalRepository.save(rental);
-        return rentalResponseMapper.toDto(saved);
+        return BulkRentalResponse.of(BulkMode.PARTIAL, results);
     }
 
     @Override
@@ -162,9 +376,128 @@ public class RentalServiceImpl implements RentalService {
             throw new IllegalArgumentException("New due date must be after the current due date");
         }
 
+        boolean wasOverdue = rental.isOverdue();
         rental.setDueDate(newDueDate);
+        rental.setOverdue(LocalDate.now().isAfter(newDueDate));
+        if (wasOverdue != rental.isOverdue()) {
+            circulationStats.overdueLoansChanged(wasOverdue ? -1 : 1);
+        }
 
         Rental saved = rentalRepository.save(rental);
         return rentalResponseMapper.toDto(saved);
     }
+
+    /**
+     * Takes up to {@code requested} loan slots of the reader: all or none in ALL_OR_NOTHING mode,
+     * as many as the rental limit still allows in PARTIAL mode.
+     *
+     * @return the number of slots taken
+     */
+    private int takeLoanSlots(Reader reader, int requested, BulkMode mode) {
+        if (readerRepository.tryTakeLoanSlots(reader.getId(), requested) > 0) {
+            return requested;
+        }
+        if (mode == BulkMode.ALL_OR_NOTHING || reader.getRentalLimit() == null) {
+            return 0;
+        }
+
+        // the count read with the reader may be stale, so the smaller request is still a conditional update
+        int remaining = Math.min(requested, reader.getRentalLimit() - reader.getActiveLoanCount());
+        if (remaining > 0 && readerRepository.tryTakeLoanSlots(reader.getId(), remaining) > 0) {
+            return remaining;
+        }
+        return 0;
+    }
+
+    private static Specification<Rental> rentalSpec(Long readerId, Long bookId, RentalStatus status, Boolean active) {
+        return Stream.of(
+                        RentalSpecifications.hasReaderId(readerId),
+                        RentalSpecifications.hasBookId(bookId),
+                        RentalSpecifications.hasStatus(status),
+                        RentalSpecifications.isActive(active)
+                )
+                .filter(Objects::nonNull)
+                .reduce(Specification::and)
+                .orElse(null);
+    }
+
+    private static Specification<ArchivedRental> archivedRentalSpec(Long readerId, Long bookId, RentalStatus status) {
+        return Stream.of(
+                        ArchivedRentalSpecifications.hasReaderId(readerId),
+                        ArchivedRentalSpecifications.hasBookId(bookId),
+                        ArchivedRentalSpecifications.hasStatus(status)
+                )
+                .reduce(Specification::and)
+                .orElse(null);
+    }
+
+    // The archive holds returned rentals only
+    private static boolean mayBeArchived(RentalStatus status, Boolean active) {
+        return status != RentalStatus.ACTIVE && !Boolean.TRUE.equals(active);
+    }
+
+    /**
+     * Whether archived rentals can be among the first {@code wanted} rows, given the current rentals page.
+     * Archived rentals were rented before the newest archived rental, so a full page of newer current rentals
+     * makes the archive query unnecessary - the usual case for recent pages.
+     */
+    private boolean archiveReaches(List<RentalRow> rentals, int wanted) {
+        if (rentals.size() < wanted) {
+            return true;
+        }
+        return archivedRentalRepository.findNewestRentedAt()
+                .map(newest -> !rentals.getLast().rentedAt().isAfter(newest))
+                .orElse(false);
+    }
+
+    // Both lists are ordered by (rentedAt, id) descending and ids are unique across the two tables
+    private static List<RentalRow> merge(List<RentalRow> current, List<RentalRow> archived, int limit) {
+        Comparator<RentalRow> newestFirst = Comparator.comparing(RentalRow::rentedAt)
+                .thenComparing(RentalRow::id)
+                .reversed();
+        List<RentalRow> merged = new ArrayList<>(Math.min(limit, current.size() + archived.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < current.size() || j < archived.size())) {
+            if (j >= archived.size() || (i < current.size() && newestFirst.compare(current.get(i), archived.get(j)) <= 0)) {
+                merged.add(current.get(i++));
+            } else {
+                merged.add(archived.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    private void completeReturn(Rental rental, Instant returnedAt, LocalDate today) {
+        boolean wasOverdue = rental.isOverdue();
+
+        // Mark return time
+        rental.setReturnedAt(returnedAt);
+
+        // Determine status based on dueDate
+        if (today.isAfter(rental.getDueDate())) {
+            rental.setStatus(RentalStatus.LATE);
+        } else {
+            rental.setStatus(RentalStatus.ON_TIME);
+        }
+
+        rental.setOverdue(false);
+
+        // Business transition: copy becomes available again
+        CopyStatus copyStatus = rental.getExactBookCopy().getStatus();
+        rental.getExactBookCopy().setStatus(CopyStatus.AVAILABLE);
+
+        circulationStats.loanReturned(wasOverdue, rental.getStatus() == RentalStatus.LATE);
+        circulationStats.copyStatusChanged(copyStatus, CopyStatus.AVAILABLE);
+    }
+
+    private static int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
 }
@@ -1,54 +1,121 @@
 package agh.oot.librarby.reservation.controller;
 
 import agh.oot.librarby.reservation.dto.AssignCopyRequest;
+import agh.oot.librarby.reservation.dto.MultipleReservationsResponse;
+import agh.oot.librarby.reservation.dto.ReservationQueuePositionResponse;
+import agh.oot.librarby.reservation.dto.ReservationQueueSummaryResponse;
 import agh.oot.librarby.reservation.dto.ReservationRequest;
 import agh.oot.librarby.reservation.dto.ReservationResponse;
 import agh.oot.librarby.reservation.dto.ReservationSearchRequest;
 import agh.oot.librarby.reservation.model.ReservationStatus;
 import agh.oot.librarby.reservation.service.ReservationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/reservations")
 public class ReservationController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final ReservationService reservationService;
+    private final ObjectMapper objectMapper;
 
-    public ReservationController(ReservationService reservationService) {
+    public ReservationController(ReservationService reservationService, ObjectMapper objectMapper) {
         this.reservationService = reservationService;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * Place a reservation. Clients may send an Idempotency-Key header (e.g. a UUID per user action);
+     * retrying with the same key returns the original reservation instead of failing as a duplicate.
+     */
     @PostMapping
-    public ResponseEntity<ReservationResponse> createReservation(@Valid @RequestBody ReservationRequest request) {
-        ReservationResponse response = reservationService.placeReservation(request);
+    public ResponseEntity<ReservationResponse> createReservation(
+            @Valid @RequestBody ReservationRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        ReservationResponse response = reservationService.placeReservation(request, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     /**
-     * Find reservations filtered by optional readerId, bookId, status, with sorting and limit.
+     * Find reservations filtered by optional readerId, bookId, status, ordered by creation time.
+     * Returns one page (limit defaults to 20, max 100); pass nextCursor as cursor to get the following page.
      * Example: GET /api/v1/reservations?readerId=1&bookId=2&status=PENDING&sortDirection=DESC&limit=10
      */
     @GetMapping
-    public ResponseEntity<List<ReservationResponse>> findReservations(
+    public ResponseEntity<MultipleReservationsResponse> findReservations(
             @RequestParam(required = false) Long readerId,
             @RequestParam(required = false) Long bookId,
             @RequestParam(required = false) ReservationStatus status,
             @RequestParam(required = false, defaultValue = "ASC") String sortDirection,
-            @RequestParam(required = false) Integer limit) {
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
 
         ReservationSearchRequest searchRequest = new ReservationSearchRequest(
-                readerId, bookId, status, sortDirection, limit
+                readerId, bookId, status, sortDirection, limit, cursor
         );
 
-        List<ReservationResponse> reservations = reservationService.findReservations(searchRequest);
+        MultipleReservationsResponse reservations = reservationService.findReservations(searchRequest);
         return ResponseEntity.ok(reservations);
     }
 
+    /**
+     * Export all reservations matching the optional filters as newline-delimited JSON (one reservation per line).
+     * The response is streamed, so exports of any size are supported. Librarians and admins only.
+     * Example: GET /api/v1/reservations/export?status=PENDING
+     */
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<StreamingResponseBody> exportReservations(
+            @RequestParam(required = false) Long readerId,
+            @RequestParam(required = false) Long bookId,
+            @RequestParam(required = false) ReservationStatus status,
+            @RequestParam(required = false, defaultValue = "ASC") String sortDirection) {
+
+        ReservationSearchRequest filters = new ReservationSearchRequest(
+                readerId, bookId, status, sortDirection, null, null
+        );
+
+        StreamingResponseBody body = out -> reservationService.exportReservations(filters, reservation -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(reservation));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    /**
+     * Get the queue length (number of PENDING reservations) of one or more books
+     * Example: GET /api/v1/reservations/queues?bookId=1&bookId=2
+     *
+     * @param bookIds the ids of the books
+     * @return one summary per requested book, in request order
+     */
+    @GetMapping("/queues")
+    public ResponseEntity<List<ReservationQueueSummaryResponse>> getQueueSummaries(
+            @RequestParam("bookId") List<Long> bookIds) {
+        if (bookIds.size() > 100) {
+            throw new IllegalArgumentException("At most 100 bookId values can be requested at once");
+        }
+        return ResponseEntity.ok(reservationService.getQueueSummaries(bookIds));
+    }
+
     /**
      * Get a specific reservation by id
      *
@@ -61,6 +128,17 @@ public class ReservationController {
         return ResponseEntity.ok(reservation);
     }
 
+    /**
+     * Get the position of a PENDING reservation in its book's queue
+     *
+     * @param reservationId the id of the reservation
+     * @return the one-based position and the queue length
+     */
+    @GetMapping("/{reservationId}/position")
+    public ResponseEntity<ReservationQueuePositionResponse> getQueuePosition(@PathVariable Long reservationId) {
+        return ResponseEntity.ok(reservationService.getQueuePosition(reservationId));
+    }
+
     /**
      * Cancel a reservation by id
      *
@@ -0,0 +1,9 @@
+package agh.oot.librarby.reservation.dto;
+
+import java.util.List;
+
+public record MultipleReservationsResponse(
+        List<ReservationResponse> reservations,
+        String nextCursor     // null if this is the last page
+) {
+}
@@ -0,0 +1,9 @@
+package agh.oot.librarby.reservation.dto;
+
+public record ReservationQueuePositionResponse(
+        Long reservationId,
+        Long bookId,
+        int position,       // 1 = next in line
+        int queueLength
+) {
+}
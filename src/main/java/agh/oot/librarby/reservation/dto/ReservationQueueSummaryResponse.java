@@ -0,0 +1,7 @@
+package agh.oot.librarby.reservation.dto;
+
+public record ReservationQueueSummaryResponse(
+        Long bookId,
+        int queueLength     // number of PENDING reservations
+) {
+}
@@ -1,5 +1,6 @@
 package agh.oot.librarby.reservation.dto;
 
+import agh.oot.librarby.reservation.model.ReservationStatus;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.time.Instant;
@@ -15,4 +16,9 @@ public record ReservationResponse(
         Long assignedCopyId,           // can be null
         LocalDate holdExpirationDate   // can be null
 ) {
+    // used by constructor-projection queries, which select the status as an enum
+    public ReservationResponse(Long id, Long bookId, Long readerId, ReservationStatus status, Instant createdAt,
+                               Long assignedCopyId, LocalDate holdExpirationDate) {
+        this(id, bookId, readerId, status.name(), createdAt, assignedCopyId, holdExpirationDate);
+    }
 }
@@ -7,8 +7,12 @@ public record ReservationSearchRequest(
         Long bookId,
         ReservationStatus status,
         String sortDirection, // "ASC" or "DESC"
-        Integer limit
+        Integer limit,
+        String cursor         // nextCursor of the previous page, null for the first page
 ) {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
     public ReservationSearchRequest {
         if (sortDirection != null && !sortDirection.equalsIgnoreCase("ASC") && !sortDirection.equalsIgnoreCase("DESC")) {
             throw new IllegalArgumentException("Sort direction must be 'ASC' or 'DESC'");
@@ -23,7 +27,7 @@ public record ReservationSearchRequest(
     }
 
     public Integer getLimit() {
-        return limit != null ? limit : Integer.MAX_VALUE;
+        return limit != null ? Math.min(limit, MAX_LIMIT) : DEFAULT_LIMIT;
     }
 }
 
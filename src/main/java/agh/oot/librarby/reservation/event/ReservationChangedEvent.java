@@ -0,0 +1,35 @@
+package agh.oot.librarby.reservation.event;
+
+import agh.oot.librarby.reservation.model.Reservation;
+import agh.oot.librarby.reservation.model.ReservationStatus;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Published by the reservation service whenever a reservation is placed or changes status.
+ *
+ * <p>Like the catalog events, it is consumed after the surrounding transaction commits.
+ *
+ * @param reservationId identifier of the affected reservation
+ * @param bookId        identifier of the reserved book
+ * @param createdAt     time the reservation was placed (its position in the FIFO queue)
+ * @param status        current status
+ */
+public record ReservationChangedEvent(
+        Long reservationId,
+        Long bookId,
+        Instant createdAt,
+        ReservationStatus status
+) {
+
+    public ReservationChangedEvent {
+        Objects.requireNonNull(reservationId, "reservationId must not be null");
+        Objects.requireNonNull(bookId, "bookId must not be null");
+    }
+
+    public static ReservationChangedEvent of(Reservation reservation) {
+        return new ReservationChangedEvent(reservation.getId(), reservation.getBook().getId(),
+                reservation.getCreatedAt(), reservation.getStatus());
+    }
+}
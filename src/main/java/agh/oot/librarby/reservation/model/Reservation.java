@@ -11,7 +11,19 @@ import java.time.LocalDate;
 import java.util.Objects;
 
 @Entity
-@Table(name = "reservations")
+@Table(
+        name = "reservations",
+        // FIFO queue per book: the oldest PENDING reservation is a single index lookup
+        indexes = {
+                @Index(name = "idx_reservations_book_status_created", columnList = "book_id, status, created_at"),
+                // a reader's reservations in (created_at, id) keyset order
+                @Index(name = "idx_reservations_reader_created", columnList = "reader_id, created_at"),
+                // expired holds are found by status and hold expiration date
+                @Index(name = "idx_reservations_status_hold_expiration", columnList = "status, hold_expiration_date")
+        },
+        // at most one PENDING reservation per reader and book, see activeSlot
+        uniqueConstraints = @UniqueConstraint(name = "uk_reservations_active_slot", columnNames = {"reader_id", "book_id", "active_slot"})
+)
 public class Reservation {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -32,13 +44,19 @@ public class Reservation {
     @Column(nullable = false)
     private ReservationStatus status;
 
-    @Column(nullable = false, updatable = false)
+    // TRUE while PENDING, NULL otherwise. MySQL has no partial unique indexes, but NULLs never collide,
+    // so a unique key on (reader_id, book_id, active_slot) only constrains PENDING reservations.
+    @Column(name = "active_slot")
+    private Boolean activeSlot;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "assigned_exact_book_copy_id")
     private ExactBookCopy assignedExactBookCopy;
 
+    @Column(name = "hold_expiration_date")
     private LocalDate holdExpirationDate;
 
     protected Reservation() {
@@ -76,6 +94,7 @@ public class Reservation {
 
     public void setStatus(ReservationStatus status) {
         this.status = status;
+        this.activeSlot = status == ReservationStatus.PENDING ? Boolean.TRUE : null;
     }
 
     public Instant getCreatedAt() {
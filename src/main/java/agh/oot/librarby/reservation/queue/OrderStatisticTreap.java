@@ -0,0 +1,138 @@
+package agh.oot.librarby.reservation.queue;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorted set with O(log n) expected time insert, remove and rank, implemented as a treap
+ * (a binary search tree balanced by random heap priorities) whose nodes also store their subtree size.
+ *
+ * <p>Not thread safe; callers synchronize access.
+ *
+ * @param <K> element type, ordered by its natural ordering
+ */
+public class OrderStatisticTreap<K extends Comparable<? super K>> {
+
+    private static final class Node<K> {
+        final K key;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        int size = 1;
+        Node<K> left;
+        Node<K> right;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+
+    // result of splitting a tree into keys before and after a pivot
+    private record Split<K>(Node<K> before, Node<K> after) {
+    }
+
+    private Node<K> root;
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public boolean contains(K key) {
+        return rank(key) >= 0;
+    }
+
+    /**
+     * Adds {@code key} unless it is already present.
+     *
+     * @return {@code true} if the set changed
+     */
+    public boolean add(K key) {
+        Objects.requireNonNull(key, "key must not be null");
+        if (contains(key)) {
+            return false;
+        }
+        Split<K> split = split(root, key, false);
+        root = merge(merge(split.before(), new Node<>(key)), split.after());
+        return true;
+    }
+
+    /**
+     * Removes {@code key} if present.
+     *
+     * @return {@code true} if the set changed
+     */
+    public boolean remove(K key) {
+        Objects.requireNonNull(key, "key must not be null");
+        Split<K> lower = split(root, key, false);
+        Split<K> upper = split(lower.after(), key, true);
+        root = merge(lower.before(), upper.after());
+        return upper.before() != null;
+    }
+
+    /**
+     * Returns the number of elements smaller than {@code key} (its zero-based index),
+     * or {@code -1} if {@code key} is not in the set.
+     */
+    public int rank(K key) {
+        int rank = 0;
+        Node<K> node = root;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    // Splits into keys < pivot and keys >= pivot, or keys <= pivot and keys > pivot if inclusive
+    private Split<K> split(Node<K> node, K pivot, boolean inclusive) {
+        if (node == null) {
+            return new Split<>(null, null);
+        }
+        int cmp = node.key.compareTo(pivot);
+        if (cmp < 0 || (inclusive && cmp == 0)) {
+            Split<K> right = split(node.right, pivot, inclusive);
+            node.right = right.before();
+            update(node);
+            return new Split<>(node, right.after());
+        }
+        Split<K> left = split(node.left, pivot, inclusive);
+        node.left = left.after();
+        update(node);
+        return new Split<>(left.before(), node);
+    }
+
+    // Joins two trees where every key of the first is smaller than every key of the second
+    private Node<K> merge(Node<K> first, Node<K> second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            update(first);
+            return first;
+        }
+        second.left = merge(first, second.left);
+        update(second);
+        return second;
+    }
+
+    private static void update(Node<?> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node<?> node) {
+        return node != null ? node.size : 0;
+    }
+}
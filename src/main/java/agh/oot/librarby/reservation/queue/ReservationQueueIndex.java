@@ -0,0 +1,150 @@
+package agh.oot.librarby.reservation.queue;
+
+import agh.oot.librarby.reservation.event.ReservationChangedEvent;
+import agh.oot.librarby.reservation.model.ReservationStatus;
+import agh.oot.librarby.reservation.repository.ReservationQueueView;
+import agh.oot.librarby.reservation.repository.ReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory FIFO queue of PENDING reservations per book, answering "how many readers are ahead of me"
+ * and "how long is the queue" in O(log n) without loading the queue from the database.
+ *
+ * <p>Each book has an {@link OrderStatisticTreap} ordered by reservation time (ties broken by id).
+ * The index is built once the application is ready and then kept current by
+ * {@link ReservationChangedEvent}s published after commit. Those events only reach the node that
+ * made the change, so the index is also rebuilt periodically to pick up changes made on other nodes.
+ */
+@Component
+public class ReservationQueueIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationQueueIndex.class);
+
+    private final ReservationRepository reservationRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, OrderStatisticTreap<QueueEntry>> queues = new HashMap<>();
+    private final Map<Long, QueueEntry> entries = new HashMap<>();
+
+    private volatile boolean ready;
+
+    /**
+     * @param position    one-based position in the queue (1 = next to get a copy)
+     * @param queueLength number of PENDING reservations for the book
+     */
+    public record QueuePosition(Long bookId, int position, int queueLength) {
+    }
+
+    private record QueueEntry(Long bookId, Instant createdAt, Long reservationId) implements Comparable<QueueEntry> {
+        private static final Comparator<QueueEntry> ORDER = Comparator
+                .comparing(QueueEntry::createdAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(QueueEntry::reservationId);
+
+        @Override
+        public int compareTo(QueueEntry other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    public ReservationQueueIndex(ReservationRepository reservationRepository) {
+        this.reservationRepository = reservationRepository;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${app.reservations.queue-index.rebuild-interval:PT5M}",
+            fixedDelayString = "${app.reservations.queue-index.rebuild-interval:PT5M}"
+    )
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            queues.clear();
+            entries.clear();
+            for (ReservationQueueView row : reservationRepository.findAllPendingQueueEntries()) {
+                add(new QueueEntry(row.getBookId(), row.getCreatedAt(), row.getId()));
+            }
+            ready = true;
+            log.info("ReservationQueueIndex: indexed {} pending reservations ({} books)", entries.size(), queues.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.reservationId());
+            if (event.status() == ReservationStatus.PENDING) {
+                add(new QueueEntry(event.bookId(), event.createdAt(), event.reservationId()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Position of a PENDING reservation in its book's queue.
+     *
+     * @return the position, or {@link Optional#empty()} if the reservation is not waiting in a queue
+     */
+    public Optional<QueuePosition> position(Long reservationId) {
+        lock.readLock().lock();
+        try {
+            QueueEntry entry = entries.get(reservationId);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            OrderStatisticTreap<QueueEntry> queue = queues.get(entry.bookId());
+            return Optional.of(new QueuePosition(entry.bookId(), queue.rank(entry) + 1, queue.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int queueLength(Long bookId) {
+        lock.readLock().lock();
+        try {
+            OrderStatisticTreap<QueueEntry> queue = queues.get(bookId);
+            return queue != null ? queue.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(QueueEntry entry) {
+        entries.put(entry.reservationId(), entry);
+        queues.computeIfAbsent(entry.bookId(), id -> new OrderStatisticTreap<>()).add(entry);
+    }
+
+    private void remove(Long reservationId) {
+        QueueEntry entry = entries.remove(reservationId);
+        if (entry == null) {
+            return;
+        }
+        OrderStatisticTreap<QueueEntry> queue = queues.get(entry.bookId());
+        queue.remove(entry);
+        if (queue.isEmpty()) {
+            queues.remove(entry.bookId());
+        }
+    }
+}
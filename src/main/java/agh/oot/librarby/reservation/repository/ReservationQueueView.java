@@ -0,0 +1,14 @@
+package agh.oot.librarby.reservation.repository;
+
+import java.time.Instant;
+
+/**
+ * Projection of a PENDING reservation used to build the in-memory queue index.
+ */
+public interface ReservationQueueView {
+    Long getId();
+
+    Long getBookId();
+
+    Instant getCreatedAt();
+}
@@ -1,18 +1,52 @@
 package agh.oot.librarby.reservation.repository;
 
 import agh.oot.librarby.book.model.Book;
+import agh.oot.librarby.reservation.dto.ReservationResponse;
 import agh.oot.librarby.reservation.model.Reservation;
 import agh.oot.librarby.reservation.model.ReservationStatus;
 import agh.oot.librarby.user.model.Reader;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
-public interface ReservationRepository extends JpaRepository<Reservation, Long>, JpaSpecificationExecutor<Reservation> {
+public interface ReservationRepository extends JpaRepository<Reservation, Long>, JpaSpecificationExecutor<Reservation>,
+        ReservationSearchRepository {
     Optional<Reservation> findByReaderAndBookAndStatus(Reader reader, Book book, ReservationStatus status);
 
+    // A single reservation, locked so a cancel or manual assignment cannot overwrite a concurrent promotion
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Reservation r where r.id = :id")
+    Optional<Reservation> findByIdForUpdate(@Param("id") Long id);
+
+    // A single reservation as a response row, without loading the entity or its associations
+    @Query("""
+            select new agh.oot.librarby.reservation.dto.ReservationResponse(
+                r.id, r.book.id, r.reader.id, r.status, r.createdAt, c.id, r.holdExpirationDate)
+            from Reservation r left join r.assignedExactBookCopy c
+            where r.id = :id
+            """)
+    Optional<ReservationResponse> findResponseById(@Param("id") Long id);
+
+    // The PENDING reservation of a reader for a book as a response row (at most one, see uk_reservations_active_slot)
+    @Query("""
+            select new agh.oot.librarby.reservation.dto.ReservationResponse(
+                r.id, r.book.id, r.reader.id, r.status, r.createdAt, c.id, r.holdExpirationDate)
+            from Reservation r left join r.assignedExactBookCopy c
+            where r.reader.id = :readerId
+              and r.book.id = :bookId
+              and r.status = agh.oot.librarby.reservation.model.ReservationStatus.PENDING
+            """)
+    Optional<ReservationResponse> findPendingResponse(@Param("readerId") Long readerId, @Param("bookId") Long bookId);
+
     // Find all reservations for a specific book, ordered by creation time (earliest first)
     List<Reservation> findByBookIdOrderByCreatedAtAsc(Long bookId);
 
@@ -22,9 +56,29 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>,
     // Find the first (earliest) reservation for a specific book
     Optional<Reservation> findFirstByBookIdOrderByCreatedAtAsc(Long bookId);
 
-    // Find the oldest pending reservation for a specific book
+    // Find the oldest pending reservation for a specific book, locked so concurrent returns cannot promote it twice
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<Reservation> findFirstByBookIdAndStatusOrderByCreatedAtAsc(Long bookId, ReservationStatus status);
 
     // Find reservations for a specific book and reader ordered by creation time
     List<Reservation> findByBookIdAndReaderIdOrderByCreatedAtAsc(Long bookId, Long readerId);
+
+    // Find ASSIGNED reservations whose hold ended before the given day, oldest hold first
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = {"book", "assignedExactBookCopy", "assignedExactBookCopy.bookEdition", "assignedExactBookCopy.bookEdition.book"})
+    @Query("""
+            select r from Reservation r
+            where r.status = agh.oot.librarby.reservation.model.ReservationStatus.ASSIGNED
+              and r.holdExpirationDate < :today
+            order by r.holdExpirationDate, r.id
+            """)
+    List<Reservation> findExpiredHolds(@Param("today") LocalDate today, Pageable pageable);
+
+    // All PENDING reservations, used to build the in-memory queue index
+    @Query("""
+            select r.id as id, r.book.id as bookId, r.createdAt as createdAt
+            from Reservation r
+            where r.status = agh.oot.librarby.reservation.model.ReservationStatus.PENDING
+            """)
+    List<ReservationQueueView> findAllPendingQueueEntries();
 }
@@ -0,0 +1,22 @@
+package agh.oot.librarby.reservation.repository;
+
+import agh.oot.librarby.reservation.dto.ReservationResponse;
+import agh.oot.librarby.reservation.model.Reservation;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+
+/**
+ * Keyset-paginated reservation search returning response rows directly (no entities, no count query).
+ */
+public interface ReservationSearchRepository {
+
+    /**
+     * Returns up to {@code limit} reservations matching {@code spec}, ordered by {@code (createdAt, id)}
+     * in the given direction and starting after the given key ({@code null} key for the first page).
+     */
+    Slice<ReservationResponse> search(Specification<Reservation> spec, Sort.Direction direction,
+                                      Instant afterCreatedAt, Long afterId, int limit);
+}
@@ -0,0 +1,77 @@
+package agh.oot.librarby.reservation.repository;
+
+import agh.oot.librarby.book.model.ExactBookCopy;
+import agh.oot.librarby.reservation.dto.ReservationResponse;
+import agh.oot.librarby.reservation.model.Reservation;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+class ReservationSearchRepositoryImpl implements ReservationSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<ReservationResponse> search(Specification<Reservation> spec, Sort.Direction direction,
+                                             Instant afterCreatedAt, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ReservationResponse> query = cb.createQuery(ReservationResponse.class);
+        Root<Reservation> root = query.from(Reservation.class);
+        Join<Reservation, ExactBookCopy> copy = root.join("assignedExactBookCopy", JoinType.LEFT);
+
+        // book and reader ids come from the foreign key columns, without joining their tables
+        query.select(cb.construct(ReservationResponse.class,
+                root.get("id"),
+                root.get("book").get("id"),
+                root.get("reader").get("id"),
+                root.get("status"),
+                root.get("createdAt"),
+                copy.get("id"),
+                root.get("holdExpirationDate")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filter = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (filter != null) {
+            predicates.add(filter);
+        }
+
+        Path<Instant> createdAt = root.get("createdAt");
+        Path<Long> id = root.get("id");
+        if (afterCreatedAt != null && afterId != null) {
+            predicates.add(direction.isAscending()
+                    ? cb.or(cb.greaterThan(createdAt, afterCreatedAt),
+                            cb.and(cb.equal(createdAt, afterCreatedAt), cb.greaterThan(id, afterId)))
+                    : cb.or(cb.lessThan(createdAt, afterCreatedAt),
+                            cb.and(cb.equal(createdAt, afterCreatedAt), cb.lessThan(id, afterId))));
+        }
+
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(direction.isAscending()
+                ? List.of(cb.asc(createdAt), cb.asc(id))
+                : List.of(cb.desc(createdAt), cb.desc(id)));
+
+        // one extra row tells whether there is a next page
+        List<ReservationResponse> rows = entityManager.createQuery(query)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > limit;
+        List<ReservationResponse> content = hasNext ? rows.subList(0, limit) : rows;
+        return new SliceImpl<>(content, PageRequest.of(0, limit), hasNext);
+    }
+}
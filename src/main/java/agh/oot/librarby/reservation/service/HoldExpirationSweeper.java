@@ -0,0 +1,66 @@
+package agh.oot.librarby.reservation.service;
+
+import agh.oot.librarby.lease.JobLeaseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Periodically expires reservations whose copy was not picked up before the hold expiration date,
+ * so the copy goes to the next reader in the queue (or back to the shelf).
+ *
+ * <p>Only the node holding the {@value #LEASE} lease runs the sweep; the lease is renewed before every batch.
+ * Each batch runs in its own transaction (see {@link ReservationService#expireHolds(LocalDate, int)}).
+ */
+@Component
+public class HoldExpirationSweeper {
+
+    static final String LEASE = "reservation-hold-expiration";
+
+    private static final Logger log = LoggerFactory.getLogger(HoldExpirationSweeper.class);
+
+    private final ReservationService reservationService;
+    private final JobLeaseService jobLeaseService;
+    private final int batchSize;
+    private final Duration leaseDuration;
+
+    public HoldExpirationSweeper(ReservationService reservationService,
+                                 JobLeaseService jobLeaseService,
+                                 @Value("${app.reservations.hold-sweep.batch-size:200}") int batchSize,
+                                 @Value("${app.reservations.hold-sweep.lease:PT5M}") Duration leaseDuration) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.reservationService = reservationService;
+        this.jobLeaseService = jobLeaseService;
+        this.batchSize = batchSize;
+        this.leaseDuration = leaseDuration;
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.reservations.hold-sweep.initial-delay:PT1M}",
+            fixedDelayString = "${app.reservations.hold-sweep.interval:PT10M}"
+    )
+    public void sweep() {
+        LocalDate today = LocalDate.now();
+        int expired = 0;
+        int batch = batchSize;
+        try {
+            while (batch == batchSize && jobLeaseService.tryAcquire(LEASE, leaseDuration)) {
+                batch = reservationService.expireHolds(today, batchSize);
+                expired += batch;
+            }
+        } finally {
+            jobLeaseService.release(LEASE);
+        }
+
+        if (expired > 0) {
+            log.info("HoldExpirationSweeper: expired {} reservations", expired);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package agh.oot.librarby.reservation.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills {@code reservations.active_slot} for PENDING reservations created before the column existed,
+ * so the {@code uk_reservations_active_slot} constraint covers them too.
+ *
+ * <p>Runs on startup, after Hibernate has added the column; once every PENDING row has its slot it
+ * updates nothing. If a reader already holds several PENDING reservations for the same book, only the
+ * oldest one gets the slot ({@code update ignore} skips the rest) and the leftovers are logged.
+ */
+@Component
+public class ReservationActiveSlotMigration implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationActiveSlotMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReservationActiveSlotMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(String... args) {
+        int updated = jdbcTemplate.update(
+                "update ignore reservations set active_slot = true "
+                        + "where status = 'PENDING' and active_slot is null order by id");
+        if (updated == 0) {
+            return;
+        }
+        log.info("ReservationActiveSlotMigration: assigned active slots to {} pending reservations", updated);
+
+        Integer duplicates = jdbcTemplate.queryForObject(
+                "select count(*) from reservations where status = 'PENDING' and active_slot is null", Integer.class);
+        if (duplicates != null && duplicates > 0) {
+            log.warn("ReservationActiveSlotMigration: {} duplicate pending reservations left without a slot", duplicates);
+        }
+    }
+}
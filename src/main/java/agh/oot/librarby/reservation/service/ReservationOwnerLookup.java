@@ -0,0 +1,65 @@
+package agh.oot.librarby.reservation.service;
+
+import agh.oot.librarby.reservation.dto.ReservationResponse;
+import agh.oot.librarby.reservation.repository.ReservationRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resolves the reader who owns a reservation from the reservation's response row.
+ *
+ * <p>Inside an HTTP request the row is remembered in the request attributes, so the authorization check
+ * and the service method it guards share a single read: {@link ReservationService#getReservationById(Long)}
+ * answers with the row the check already loaded. The remembered row reflects the reservation as it was first
+ * read in the request, so methods that change the reservation must not answer from it. Outside a request
+ * every call goes to the database.
+ */
+@Component
+public class ReservationOwnerLookup {
+
+    private static final String CACHE_ATTRIBUTE = ReservationOwnerLookup.class.getName() + ".CACHE";
+
+    private final ReservationRepository reservationRepository;
+
+    public ReservationOwnerLookup(ReservationRepository reservationRepository) {
+        this.reservationRepository = reservationRepository;
+    }
+
+    /**
+     * Returns the id of the reader owning the reservation, or empty if the reservation does not exist.
+     */
+    public Optional<Long> readerIdOf(Long reservationId) {
+        return find(reservationId).map(ReservationResponse::readerId);
+    }
+
+    /**
+     * Returns the reservation as a response row, or empty if it does not exist.
+     */
+    public Optional<ReservationResponse> find(Long reservationId) {
+        Map<Long, Optional<ReservationResponse>> cache = requestCache();
+        if (cache == null) {
+            return reservationRepository.findResponseById(reservationId);
+        }
+        return cache.computeIfAbsent(reservationId, reservationRepository::findResponseById);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, Optional<ReservationResponse>> requestCache() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+
+        Object cache = attributes.getAttribute(CACHE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cache == null) {
+            cache = new HashMap<Long, Optional<ReservationResponse>>();
+            attributes.setAttribute(CACHE_ATTRIBUTE, cache, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<Long, Optional<ReservationResponse>>) cache;
+    }
+}
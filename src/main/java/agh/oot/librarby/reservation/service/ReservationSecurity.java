@@ -1,6 +1,5 @@
 package agh.oot.librarby.reservation.service;
 
-import agh.oot.librarby.reservation.repository.ReservationRepository;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
@@ -8,17 +7,17 @@ import org.springframework.stereotype.Component;
 @Component("reservationSecurity")
 public class ReservationSecurity {
 
-    private final ReservationRepository reservationRepository;
+    private final ReservationOwnerLookup reservationOwnerLookup;
 
-    public ReservationSecurity(ReservationRepository reservationRepository) {
-        this.reservationRepository = reservationRepository;
+    public ReservationSecurity(ReservationOwnerLookup reservationOwnerLookup) {
+        this.reservationOwnerLookup = reservationOwnerLookup;
     }
 
     public boolean isOwnerOrPrivileged(Long reservationId, Long currentUserId, Authentication auth) {
         if (hasAdminRole(auth)) return true;
 
-        return reservationRepository.findById(reservationId)
-                .map(res -> res.getReader().getId().equals(currentUserId))
+        return reservationOwnerLookup.readerIdOf(reservationId)
+                .map(readerId -> readerId.equals(currentUserId))
                 .orElse(false);
     }
 
@@ -5,109 +5,233 @@ import agh.oot.librarby.book.model.CopyStatus;
 import agh.oot.librarby.book.model.ExactBookCopy;
 import agh.oot.librarby.book.repository.BookRepository;
 import agh.oot.librarby.book.repository.ExactBookCopyRepository;
+import agh.oot.librarby.cache.BoundedCache;
+import agh.oot.librarby.concurrency.ConflictRetrier;
 import agh.oot.librarby.notification.model.ReservationEventOutbox;
 import agh.oot.librarby.notification.model.ReservationEventType;
 import agh.oot.librarby.notification.repository.ReservationEventOutboxRepository;
+import agh.oot.librarby.pagination.CursorCodec;
 import agh.oot.librarby.reservation.dto.AssignCopyRequest;
+import agh.oot.librarby.reservation.dto.MultipleReservationsResponse;
 import agh.oot.librarby.reservation.dto.ReservationRequest;
 import agh.oot.librarby.reservation.dto.ReservationResponse;
+import agh.oot.librarby.reservation.dto.ReservationQueuePositionResponse;
+import agh.oot.librarby.reservation.dto.ReservationQueueSummaryResponse;
 import agh.oot.librarby.reservation.dto.ReservationSearchRequest;
+import agh.oot.librarby.reservation.event.ReservationChangedEvent;
 import agh.oot.librarby.reservation.model.Reservation;
 import agh.oot.librarby.reservation.model.ReservationStatus;
+import agh.oot.librarby.reservation.queue.ReservationQueueIndex;
 import agh.oot.librarby.reservation.repository.ReservationRepository;
 import agh.oot.librarby.reservation.specification.ReservationSpecifications;
+import agh.oot.librarby.stats.service.CirculationStats;
 import agh.oot.librarby.user.model.Reader;
 import agh.oot.librarby.user.repository.ReaderRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 public class ReservationService {
+    private static final int EXPORT_PAGE_SIZE = 500;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     private final ReaderRepository readerRepository;
     private final BookRepository bookRepository;
     private final ReservationRepository reservationRepository;
+    private final ReservationOwnerLookup reservationOwnerLookup;
     private final ExactBookCopyRepository exactBookCopyRepository;
     private final ReservationEventOutboxRepository reservationEventOutboxRepository;
+    private final ReservationQueueIndex reservationQueueIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BoundedCache<String, ReservationResponse> idempotencyCache;
+    private final ConflictRetrier conflictRetrier;
+    private final CirculationStats circulationStats;
+    private final int holdDays;
 
 
     public ReservationService(ReaderRepository readerRepository,
                               BookRepository bookRepository,
                               ReservationRepository reservationRepository,
-                              ExactBookCopyRepository exactBookCopyRepository, ReservationEventOutboxRepository reservationEventOutboxRepository) {
+                              ReservationOwnerLookup reservationOwnerLookup,
+                              ExactBookCopyRepository exactBookCopyRepository, ReservationEventOutboxRepository reservationEventOutboxRepository,
+                              ReservationQueueIndex reservationQueueIndex,
+                              ApplicationEventPublisher eventPublisher,
+                              BoundedCache<String, ReservationResponse> idempotencyCache,
+                              ConflictRetrier conflictRetrier,
+                              CirculationStats circulationStats,
+                              @Value("${app.reservations.hold-days:3}") int holdDays) {
         this.readerRepository = readerRepository;
         this.bookRepository = bookRepository;
         this.reservationRepository = reservationRepository;
+        this.reservationOwnerLookup = reservationOwnerLookup;
         this.exactBookCopyRepository = exactBookCopyRepository;
         this.reservationEventOutboxRepository = reservationEventOutboxRepository;
+        this.reservationQueueIndex = reservationQueueIndex;
+        this.eventPublisher = eventPublisher;
+        this.idempotencyCache = idempotencyCache;
+        this.conflictRetrier = conflictRetrier;
+        this.circulationStats = circulationStats;
+        this.holdDays = holdDays;
     }
 
-    @Transactional
+    /**
+     * Places a PENDING reservation. When {@code idempotencyKey} is given, a retry with the same key and
+     * reader returns the original response without touching the database, and so does a concurrent
+     * duplicate (a double click) that loses the insert race to the original request.
+     */
     @PreAuthorize("#request.readerId == authentication.principal.id or hasAnyRole('ADMIN', 'LIBRARIAN')")
-    public ReservationResponse placeReservation(ReservationRequest request) {
+    public ReservationResponse placeReservation(ReservationRequest request, String idempotencyKey) {
+        String cacheKey = null;
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters long");
+            }
+            // scoped by reader, so one reader's key can never replay another reader's reservation
+            cacheKey = request.readerId() + ":" + idempotencyKey;
+            Optional<ReservationResponse> original = idempotencyCache.get(cacheKey);
+            if (original.isPresent()) {
+                if (!original.get().bookId().equals(request.bookId())) {
+                    throw new IllegalStateException("Idempotency-Key was already used for a different reservation request");
+                }
+                return original.get();
+            }
+        }
+
+        String responseCacheKey = cacheKey;
+        try {
+            // the insert runs in its own transaction, so a lost race can still be answered from a fresh read below
+            return conflictRetrier.execute("reservation", () -> insertReservation(request, responseCacheKey));
+        } catch (DataIntegrityViolationException ex) {
+            // a concurrent request placed the same reservation between the check and the insert
+            if (cacheKey == null) {
+                throw duplicatePendingReservation(request);
+            }
+            // with a key this is a retry racing the original request, which has committed by now
+            ReservationResponse original = reservationRepository.findPendingResponse(request.readerId(), request.bookId())
+                    .orElseThrow(() -> duplicatePendingReservation(request));
+            idempotencyCache.put(cacheKey, original);
+            return original;
+        }
+    }
+
+    private ReservationResponse insertReservation(ReservationRequest request, String cacheKey) {
         Reader targetReader = readerRepository.findById(request.readerId())
                 .orElseThrow(() -> new EntityNotFoundException("Reader not found"));
 
         Book targetBook = bookRepository.findById(request.bookId())
                 .orElseThrow(() -> new EntityNotFoundException("Book not found"));
 
+        // fast path with a clear message; the uk_reservations_active_slot constraint closes the race
         reservationRepository.findByReaderAndBookAndStatus(
                 targetReader,
                 targetBook,
                 ReservationStatus.PENDING
         ).ifPresent(r -> {
-            throw new IllegalStateException(String.format(
-                    "Reader %d already has a pending reservation for book %d",
-                    r.getReader().getId(), r.getBook().getId()));
+            throw duplicatePendingReservation(request);
         });
 
         Reservation reservation = new Reservation(targetBook, targetReader);
         reservation.setStatus(ReservationStatus.PENDING);
         reservation.setCreatedAt(Instant.now());
 
-        Reservation saved = reservationRepository.save(reservation);
-        return mapToResponse(saved);
-    }
+        Reservation saved = reservationRepository.saveAndFlush(reservation);
+        eventPublisher.publishEvent(ReservationChangedEvent.of(saved));
+        circulationStats.reservationStatusChanged(null, ReservationStatus.PENDING);
 
+        ReservationResponse response = mapToResponse(saved);
+        if (cacheKey != null) {
+            idempotencyCache.putAfterCommit(cacheKey, response);
+        }
+        return response;
+    }
 
     @Transactional(readOnly = true)
     @PreAuthorize("@reservationSecurity.canSearch(#searchRequest.readerId, #searchRequest.bookId, authentication.principal.id, authentication)")
-    public List<ReservationResponse> findReservations(ReservationSearchRequest searchRequest) {
+    public MultipleReservationsResponse findReservations(ReservationSearchRequest searchRequest) {
         if (searchRequest.readerId() == null && searchRequest.bookId() == null) {
             throw new IllegalArgumentException("At least one filter parameter (readerId or bookId) must be provided");
         }
 
+        Instant afterCreatedAt = null;
+        Long afterId = null;
+        if (searchRequest.cursor() != null) {
+            List<String> key = CursorCodec.decode(searchRequest.cursor(), 2);
+            try {
+                afterCreatedAt = Instant.parse(key.get(0));
+                afterId = Long.valueOf(key.get(1));
+            } catch (DateTimeParseException | NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid cursor", ex);
+            }
+        }
+
+        Slice<ReservationResponse> page = reservationRepository.search(searchSpec(searchRequest), sortDirection(searchRequest),
+                afterCreatedAt, afterId, searchRequest.getLimit());
+
+        String nextCursor = null;
+        if (page.hasNext()) {
+            ReservationResponse last = page.getContent().getLast();
+            nextCursor = CursorCodec.encode(last.createdAt(), last.id());
+        }
+        return new MultipleReservationsResponse(page.getContent(), nextCursor);
+    }
+
+    /**
+     * Streams every reservation matching the filters to {@code consumer}, page by page, so an export
+     * of any size needs memory for a single page only. Authorization is left to the caller.
+     */
+    public void exportReservations(ReservationSearchRequest filters, Consumer<ReservationResponse> consumer) {
+        Specification<Reservation> spec = searchSpec(filters);
+        Sort.Direction direction = sortDirection(filters);
+        Instant afterCreatedAt = null;
+        Long afterId = null;
+
+        Slice<ReservationResponse> page;
+        do {
+            page = reservationRepository.search(spec, direction, afterCreatedAt, afterId, EXPORT_PAGE_SIZE);
+            page.forEach(consumer);
+            if (page.hasContent()) {
+                ReservationResponse last = page.getContent().getLast();
+                afterCreatedAt = last.createdAt();
+                afterId = last.id();
+            }
+        } while (page.hasNext());
+    }
+
+    private static Specification<Reservation> searchSpec(ReservationSearchRequest searchRequest) {
         Specification<Reservation> spec = (root, query, criteriaBuilder) -> null;
 
         spec = spec.and(ReservationSpecifications.hasReaderId(searchRequest.readerId()));
         spec = spec.and(ReservationSpecifications.hasBookId(searchRequest.bookId()));
         spec = spec.and(ReservationSpecifications.hasStatus(searchRequest.status()));
+        return spec;
+    }
 
-        Sort sort = searchRequest.getSortDirection().equalsIgnoreCase("DESC")
-                ? Sort.by("createdAt").descending()
-                : Sort.by("createdAt").ascending();
-
-        Pageable pageable = PageRequest.of(0, searchRequest.getLimit(), sort);
-
-        return reservationRepository.findAll(spec, pageable)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    private static Sort.Direction sortDirection(ReservationSearchRequest searchRequest) {
+        return searchRequest.getSortDirection().equalsIgnoreCase("DESC") ? Sort.Direction.DESC : Sort.Direction.ASC;
     }
 
     @Transactional
     @PreAuthorize("@reservationSecurity.isOwnerOrPrivileged(#reservationId, authentication.principal.id, authentication)")
     public void cancelReservation(Long reservationId) {
-        Reservation reservation = reservationRepository.findById(reservationId)
+        Reservation reservation = reservationRepository.findByIdForUpdate(reservationId)
                 .orElseThrow(() -> new EntityNotFoundException("Reservation not found with id: " + reservationId));
 
         ReservationStatus current = reservation.getStatus();
@@ -119,27 +243,61 @@ public class ReservationService {
         if (assignedCopy != null && assignedCopy.getStatus() == CopyStatus.RESERVED) {
             assignedCopy.setStatus(CopyStatus.AVAILABLE);
             exactBookCopyRepository.save(assignedCopy);
+            circulationStats.copyStatusChanged(CopyStatus.RESERVED, CopyStatus.AVAILABLE);
         }
 
         reservation.setStatus(ReservationStatus.CANCELLED);
+        circulationStats.reservationStatusChanged(current, ReservationStatus.CANCELLED);
         ReservationEventOutbox eventOutbox = ReservationEventOutbox.build(reservation, ReservationEventType.CANCELLED);
         reservationEventOutboxRepository.save(eventOutbox);
         reservationRepository.save(reservation);
+        eventPublisher.publishEvent(ReservationChangedEvent.of(reservation));
     }
 
     @Transactional(readOnly = true)
     @PreAuthorize("@reservationSecurity.isOwnerOrPrivileged(#reservationId, authentication.principal.id, authentication)")
     public ReservationResponse getReservationById(Long reservationId) {
-        Reservation reservation = reservationRepository.findById(reservationId)
+        // the same row the ownership check read, so a reader's request costs a single query
+        return reservationOwnerLookup.find(reservationId)
                 .orElseThrow(() -> new EntityNotFoundException("Reservation not found with id: " + reservationId));
+    }
 
-        return mapToResponse(reservation);
+    @Transactional(readOnly = true)
+    @PreAuthorize("@reservationSecurity.isOwnerOrPrivileged(#reservationId, authentication.principal.id, authentication)")
+    public ReservationQueuePositionResponse getQueuePosition(Long reservationId) {
+        if (!reservationQueueIndex.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Reservation queues are still being loaded, try again shortly");
+        }
+
+        return reservationQueueIndex.position(reservationId)
+                .map(position -> new ReservationQueuePositionResponse(
+                        reservationId, position.bookId(), position.position(), position.queueLength()))
+                .orElseThrow(() -> {
+                    Reservation reservation = reservationRepository.findById(reservationId)
+                            .orElseThrow(() -> new EntityNotFoundException("Reservation not found with id: " + reservationId));
+                    return new IllegalStateException("Only PENDING reservations have a queue position (current: " + reservation.getStatus() + ")");
+                });
+    }
+
+    public List<ReservationQueueSummaryResponse> getQueueSummaries(List<Long> bookIds) {
+        if (!reservationQueueIndex.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Reservation queues are still being loaded, try again shortly");
+        }
+
+        return bookIds.stream()
+                .distinct()
+                .map(bookId -> new ReservationQueueSummaryResponse(bookId, reservationQueueIndex.queueLength(bookId)))
+                .toList();
     }
 
-    @Transactional
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
     public ReservationResponse assignCopyToReservation(Long reservationId, AssignCopyRequest request) {
-        Reservation reservation = reservationRepository.findById(reservationId)
+        // the copy is version-checked, so it cannot be lent and set aside for a reservation at the same time
+        return conflictRetrier.execute("copy assignment", () -> assignCopy(reservationId, request));
+    }
+
+    private ReservationResponse assignCopy(Long reservationId, AssignCopyRequest request) {
+        Reservation reservation = reservationRepository.findByIdForUpdate(reservationId)
                 .orElseThrow(() -> new EntityNotFoundException("Reservation not found"));
 
         if (reservation.getStatus() != ReservationStatus.PENDING) {
@@ -158,17 +316,75 @@ public class ReservationService {
             throw new IllegalArgumentException("Copy book does not match reservation book");
         }
 
+        assign(reservation, copy, request.holdExpirationDate());
+
+        return mapToResponse(reservationRepository.save(reservation));
+    }
+
+    /**
+     * Offers a just returned copy to the oldest PENDING reservation for its book (FIFO).
+     * Must be called inside the returning transaction, after the copy became AVAILABLE:
+     * the copy is set aside as RESERVED, the reservation becomes ASSIGNED and a READY_FOR_PICKUP
+     * event is written to the outbox, so the return and the promotion commit or roll back together.
+     *
+     * @return the promoted reservation, or empty if nobody is waiting for the book
+     */
+    @Transactional
+    public Optional<Reservation> promoteNextReservation(ExactBookCopy copy) {
+        if (copy.getStatus() != CopyStatus.AVAILABLE) {
+            return Optional.empty();
+        }
+
+        Long bookId = copy.getBookEdition().getBook().getId();
+        Optional<Reservation> next = reservationRepository.findFirstByBookIdAndStatusOrderByCreatedAtAsc(bookId, ReservationStatus.PENDING);
+        next.ifPresent(reservation -> assign(reservation, copy, LocalDate.now().plusDays(holdDays)));
+        return next;
+    }
+
+    /**
+     * Expires up to {@code limit} ASSIGNED reservations whose hold ended before {@code today}.
+     * Each reservation becomes EXPIRED with an EXPIRED outbox event, and its copy is offered to the next
+     * PENDING reservation for the book or released back to AVAILABLE, all in one transaction.
+     *
+     * @return the number of expired reservations
+     */
+    @Transactional
+    public int expireHolds(LocalDate today, int limit) {
+        List<Reservation> expired = reservationRepository.findExpiredHolds(today, PageRequest.of(0, limit));
+        for (Reservation reservation : expired) {
+            reservation.setStatus(ReservationStatus.EXPIRED);
+            circulationStats.reservationStatusChanged(ReservationStatus.ASSIGNED, ReservationStatus.EXPIRED);
+            reservationEventOutboxRepository.save(ReservationEventOutbox.build(reservation, ReservationEventType.EXPIRED));
+            eventPublisher.publishEvent(ReservationChangedEvent.of(reservation));
+
+            ExactBookCopy copy = reservation.getAssignedExactBookCopy();
+            if (copy != null && copy.getStatus() == CopyStatus.RESERVED) {
+                copy.setStatus(CopyStatus.AVAILABLE);
+                circulationStats.copyStatusChanged(CopyStatus.RESERVED, CopyStatus.AVAILABLE);
+                promoteNextReservation(copy);
+            }
+        }
+        return expired.size();
+    }
+
+    private void assign(Reservation reservation, ExactBookCopy copy, LocalDate holdExpirationDate) {
         copy.setStatus(CopyStatus.RESERVED);
         exactBookCopyRepository.save(copy);
+        circulationStats.copyStatusChanged(CopyStatus.AVAILABLE, CopyStatus.RESERVED);
 
         reservation.setAssignedExactBookCopy(copy);
         reservation.setStatus(ReservationStatus.ASSIGNED);
-        reservation.setHoldExpirationDate(request.holdExpirationDate());
+        circulationStats.reservationStatusChanged(ReservationStatus.PENDING, ReservationStatus.ASSIGNED);
+        reservation.setHoldExpirationDate(holdExpirationDate);
 
         ReservationEventOutbox eventOutbox = ReservationEventOutbox.build(reservation, ReservationEventType.READY_FOR_PICKUP);
         reservationEventOutboxRepository.save(eventOutbox);
+        eventPublisher.publishEvent(ReservationChangedEvent.of(reservation));
+    }
 
-        return mapToResponse(reservationRepository.save(reservation));
+    private static IllegalStateException duplicatePendingReservation(ReservationRequest request) {
+        return new IllegalStateException(String.format(
+                "Reader %d already has a pending reservation for book %d", request.readerId(), request.bookId()));
     }
 
     private ReservationResponse mapToResponse(Reservation reservation) {
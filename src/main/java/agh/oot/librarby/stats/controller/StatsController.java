@@ -0,0 +1,60 @@
+package agh.oot.librarby.stats.controller;
+
+import agh.oot.librarby.exception.ApiErrorResponse;
+import agh.oot.librarby.stats.dto.CirculationStatsResponse;
+import agh.oot.librarby.stats.service.CirculationStats;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Statistics", description = "Circulation statistics for the admin dashboard")
+@RequestMapping(
+        path = "/api/v1/stats",
+        produces = MediaType.APPLICATION_JSON_VALUE
+)
+public class StatsController {
+
+    private final CirculationStats circulationStats;
+
+    public StatsController(CirculationStats circulationStats) {
+        this.circulationStats = circulationStats;
+    }
+
+    @Operation(
+            summary = "Get circulation statistics",
+            description = """
+                    Returns copies and reservations per status, active and overdue loans, and daily activity of recent days.
+                    Served from memory; figures are recounted from the database periodically (see reconciledAt).
+                    Requires admin or librarian privileges.
+                    """
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Statistics retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = CirculationStatsResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Access denied",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<CirculationStatsResponse> getStats() {
+        return ResponseEntity.ok(circulationStats.snapshot());
+    }
+}
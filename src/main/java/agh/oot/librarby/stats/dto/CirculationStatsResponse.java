@@ -0,0 +1,31 @@
+package agh.oot.librarby.stats.dto;
+
+import agh.oot.librarby.book.model.CopyStatus;
+import agh.oot.librarby.reservation.model.ReservationStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Schema(description = "Current circulation figures and recent daily activity")
+public record CirculationStatsResponse(
+        @Schema(description = "Number of exact book copies per status")
+        Map<CopyStatus, Long> copiesByStatus,
+
+        @Schema(description = "Rentals not returned yet", example = "1250")
+        long activeLoans,
+
+        @Schema(description = "Unreturned rentals past their due date", example = "48")
+        long overdueLoans,
+
+        @Schema(description = "Number of reservations per status")
+        Map<ReservationStatus, Long> reservationsByStatus,
+
+        @Schema(description = "Daily activity, oldest day first, ending today")
+        List<DailyCirculationResponse> days,
+
+        @Schema(description = "When the figures were last recounted from the database; null before the first recount", nullable = true)
+        Instant reconciledAt
+) {
+}
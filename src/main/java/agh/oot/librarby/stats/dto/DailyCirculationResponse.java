@@ -0,0 +1,24 @@
+package agh.oot.librarby.stats.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+@Schema(description = "Circulation activity of one day")
+public record DailyCirculationResponse(
+        @Schema(description = "Day (server time zone)", example = "2026-01-09")
+        LocalDate day,
+
+        @Schema(description = "Rentals started", example = "42")
+        long checkouts,
+
+        @Schema(description = "Rentals returned", example = "37")
+        long returns,
+
+        @Schema(description = "Rentals returned after their due date", example = "3")
+        long lateReturns,
+
+        @Schema(description = "Reservations placed", example = "11")
+        long reservationsPlaced
+) {
+}
@@ -0,0 +1,56 @@
+package agh.oot.librarby.stats.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDate;
+
+/**
+ * Circulation activity of one day, accumulated by every application instance through
+ * {@code DailyCirculationRepository#addCounts}.
+ */
+@Entity
+@Table(name = "daily_circulation")
+public class DailyCirculation {
+
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private long checkouts;
+
+    @Column(nullable = false)
+    private long returns;
+
+    @Column(name = "late_returns", nullable = false)
+    private long lateReturns;
+
+    @Column(name = "reservations_placed", nullable = false)
+    private long reservationsPlaced;
+
+    protected DailyCirculation() {
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public long getCheckouts() {
+        return checkouts;
+    }
+
+    public long getReturns() {
+        return returns;
+    }
+
+    public long getLateReturns() {
+        return lateReturns;
+    }
+
+    public long getReservationsPlaced() {
+        return reservationsPlaced;
+    }
+}
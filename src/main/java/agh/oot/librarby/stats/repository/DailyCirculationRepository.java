@@ -0,0 +1,49 @@
+package agh.oot.librarby.stats.repository;
+
+import agh.oot.librarby.book.model.CopyStatus;
+import agh.oot.librarby.reservation.model.ReservationStatus;
+import agh.oot.librarby.stats.model.DailyCirculation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyCirculationRepository extends JpaRepository<DailyCirculation, LocalDate> {
+
+    List<DailyCirculation> findByDayGreaterThanEqual(LocalDate from);
+
+    // Adds to the day's row, creating it if needed; instances add their own activity, so nothing is overwritten
+    @Modifying
+    @Query(value = """
+            insert into daily_circulation (stat_date, checkouts, returns, late_returns, reservations_placed)
+            values (:day, :checkouts, :returns, :lateReturns, :reservationsPlaced)
+            on duplicate key update
+                checkouts = checkouts + :checkouts,
+                returns = returns + :returns,
+                late_returns = late_returns + :lateReturns,
+                reservations_placed = reservations_placed + :reservationsPlaced
+            """, nativeQuery = true)
+    void addCounts(@Param("day") LocalDate day,
+                   @Param("checkouts") long checkouts,
+                   @Param("returns") long returns,
+                   @Param("lateReturns") long lateReturns,
+                   @Param("reservationsPlaced") long reservationsPlaced);
+
+    // Reconciliation counts over the circulation tables, run periodically rather than per request
+
+    @Query("select c.status as status, count(c) as total from ExactBookCopy c group by c.status")
+    List<StatusCountView<CopyStatus>> countCopiesByStatus();
+
+    @Query("select r.status as status, count(r) as total from Reservation r group by r.status")
+    List<StatusCountView<ReservationStatus>> countReservationsByStatus();
+
+    // Only unreturned rentals, a range of idx_rentals_returned_at_due_date
+    @Query("""
+            select count(r) as active, coalesce(sum(case when r.overdue = true then 1 else 0 end), 0) as overdue
+            from Rental r where r.returnedAt is null
+            """)
+    LoanCountView countLoans();
+}
@@ -0,0 +1,7 @@
+package agh.oot.librarby.stats.repository;
+
+public interface LoanCountView {
+    long getActive();
+
+    long getOverdue();
+}
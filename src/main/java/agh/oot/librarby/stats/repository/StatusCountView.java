@@ -0,0 +1,12 @@
+package agh.oot.librarby.stats.repository;
+
+/**
+ * Number of rows with a given status, as returned by the grouped reconciliation counts.
+ *
+ * @param <S> the status enum
+ */
+public interface StatusCountView<S extends Enum<S>> {
+    S getStatus();
+
+    long getTotal();
+}
@@ -0,0 +1,192 @@
+package agh.oot.librarby.stats.service;
+
+import agh.oot.librarby.book.model.CopyStatus;
+import agh.oot.librarby.reservation.model.ReservationStatus;
+import agh.oot.librarby.stats.dto.CirculationStatsResponse;
+import agh.oot.librarby.stats.dto.DailyCirculationResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory circulation counters behind {@code GET /api/v1/stats}, so the dashboard never aggregates over
+ * copies, rentals or reservations.
+ *
+ * <p>The rental, reservation and copy services report every status transition here; a change is applied only
+ * once its transaction commits. Current figures (copies and reservations per status, active and overdue loans)
+ * cover this instance's own changes and are recounted from the database by {@link CirculationStatsJob}, which
+ * also corrects drift and brings in changes made by other instances. Daily activity is kept in memory until the
+ * job adds it to the {@code daily_circulation} rows shared by all instances.
+ */
+@Service
+public class CirculationStats {
+
+    private final int historyDays;
+
+    private final long[] copiesByStatus = new long[CopyStatus.values().length];
+    private final long[] reservationsByStatus = new long[ReservationStatus.values().length];
+    private long activeLoans;
+    private long overdueLoans;
+    private Instant reconciledAt;
+
+    // activity not yet added to daily_circulation, and the rows last read back from it
+    private final Map<LocalDate, DailyCounts> unflushed = new HashMap<>();
+    private Map<LocalDate, DailyCounts> stored = Map.of();
+
+    public CirculationStats(@Value("${app.stats.history-days:30}") int historyDays) {
+        if (historyDays <= 0) {
+            throw new IllegalArgumentException("historyDays must be positive");
+        }
+        this.historyDays = historyDays;
+    }
+
+    /**
+     * Records copies moving from one status to another; a {@code null} status stands for a copy
+     * that is created or deleted.
+     */
+    public void copyStatusChanged(CopyStatus from, CopyStatus to, int count) {
+        if (from == to || count == 0) {
+            return;
+        }
+        afterCommit(() -> {
+            if (from != null) copiesByStatus[from.ordinal()] -= count;
+            if (to != null) copiesByStatus[to.ordinal()] += count;
+        });
+    }
+
+    public void copyStatusChanged(CopyStatus from, CopyStatus to) {
+        copyStatusChanged(from, to, 1);
+    }
+
+    public void loansOpened(int count) {
+        afterCommit(() -> {
+            activeLoans += count;
+            addToday(new DailyCounts(count, 0, 0, 0));
+        });
+    }
+
+    public void loanReturned(boolean wasOverdue, boolean late) {
+        afterCommit(() -> {
+            activeLoans--;
+            if (wasOverdue) overdueLoans--;
+            addToday(new DailyCounts(0, 1, late ? 1 : 0, 0));
+        });
+    }
+
+    public void overdueLoansChanged(int delta) {
+        if (delta == 0) {
+            return;
+        }
+        afterCommit(() -> overdueLoans += delta);
+    }
+
+    /**
+     * Records a reservation moving from one status to another; {@code from} is {@code null} for a new reservation.
+     */
+    public void reservationStatusChanged(ReservationStatus from, ReservationStatus to) {
+        if (from == to) {
+            return;
+        }
+        afterCommit(() -> {
+            if (from != null) reservationsByStatus[from.ordinal()]--;
+            reservationsByStatus[to.ordinal()]++;
+            if (from == null) addToday(new DailyCounts(0, 0, 0, 1));
+        });
+    }
+
+    public synchronized CirculationStatsResponse snapshot() {
+        Map<CopyStatus, Long> copies = new EnumMap<>(CopyStatus.class);
+        for (CopyStatus status : CopyStatus.values()) {
+            copies.put(status, copiesByStatus[status.ordinal()]);
+        }
+        Map<ReservationStatus, Long> reservations = new EnumMap<>(ReservationStatus.class);
+        for (ReservationStatus status : ReservationStatus.values()) {
+            reservations.put(status, reservationsByStatus[status.ordinal()]);
+        }
+
+        LocalDate today = LocalDate.now();
+        List<DailyCirculationResponse> days = new ArrayList<>(historyDays);
+        for (LocalDate day = historyStart(); !day.isAfter(today); day = day.plusDays(1)) {
+            DailyCounts counts = stored.getOrDefault(day, DailyCounts.ZERO).plus(unflushed.getOrDefault(day, DailyCounts.ZERO));
+            days.add(new DailyCirculationResponse(day, counts.checkouts(), counts.returns(),
+                    counts.lateReturns(), counts.reservationsPlaced()));
+        }
+
+        return new CirculationStatsResponse(copies, activeLoans, overdueLoans, reservations, days, reconciledAt);
+    }
+
+    LocalDate historyStart() {
+        return LocalDate.now().minusDays(historyDays - 1);
+    }
+
+    /** Activity not yet written to the database, to be passed back to {@link #flushed} once it is. */
+    synchronized Map<LocalDate, DailyCounts> unflushedCounts() {
+        return Map.copyOf(unflushed);
+    }
+
+    /**
+     * Moves committed activity from the unwritten counts to the stored days, so it is neither written again
+     * nor missing from snapshots until the stored days are next read back.
+     */
+    synchronized void flushed(Map<LocalDate, DailyCounts> written) {
+        Map<LocalDate, DailyCounts> storedDays = new HashMap<>(stored);
+        written.forEach((day, counts) -> {
+            unflushed.computeIfPresent(day, (d, current) -> {
+                DailyCounts rest = current.minus(counts);
+                return rest.isZero() ? null : rest;
+            });
+            storedDays.merge(day, counts, DailyCounts::plus);
+        });
+        stored = Map.copyOf(storedDays);
+    }
+
+    /** Replaces the stored days with the rows read back from the database, including other instances' activity. */
+    synchronized void storedDaysLoaded(Map<LocalDate, DailyCounts> storedDays) {
+        stored = Map.copyOf(storedDays);
+    }
+
+    synchronized void reconciled(Map<CopyStatus, Long> copies, long activeLoans, long overdueLoans,
+                                 Map<ReservationStatus, Long> reservations, Instant at) {
+        for (CopyStatus status : CopyStatus.values()) {
+            copiesByStatus[status.ordinal()] = copies.getOrDefault(status, 0L);
+        }
+        for (ReservationStatus status : ReservationStatus.values()) {
+            reservationsByStatus[status.ordinal()] = reservations.getOrDefault(status, 0L);
+        }
+        this.activeLoans = activeLoans;
+        this.overdueLoans = overdueLoans;
+        this.reconciledAt = at;
+    }
+
+    private void addToday(DailyCounts counts) {
+        unflushed.merge(LocalDate.now(), counts, DailyCounts::plus);
+    }
+
+    // Rolled back transactions must not count, so changes wait for the commit
+    private void afterCommit(Runnable change) {
+        Runnable apply = () -> {
+            synchronized (this) {
+                change.run();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package agh.oot.librarby.stats.service;
+
+import agh.oot.librarby.book.model.CopyStatus;
+import agh.oot.librarby.reservation.model.ReservationStatus;
+import agh.oot.librarby.stats.model.DailyCirculation;
+import agh.oot.librarby.stats.repository.DailyCirculationRepository;
+import agh.oot.librarby.stats.repository.LoanCountView;
+import agh.oot.librarby.stats.repository.StatusCountView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@link CirculationStats} in line with the database: frequently adds the in-memory daily activity to
+ * {@code daily_circulation} and reads the recent days back, and less often recounts the current figures.
+ *
+ * <p>Runs on every instance, since each one holds its own counters and unwritten activity.
+ */
+@Component
+public class CirculationStatsJob {
+
+    private static final Logger log = LoggerFactory.getLogger(CirculationStatsJob.class);
+
+    private final CirculationStats circulationStats;
+    private final DailyCirculationRepository dailyCirculationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public CirculationStatsJob(CirculationStats circulationStats,
+                               DailyCirculationRepository dailyCirculationRepository,
+                               TransactionTemplate transactionTemplate) {
+        this.circulationStats = circulationStats;
+        this.dailyCirculationRepository = dailyCirculationRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${app.stats.flush-interval:PT1M}",
+            fixedDelayString = "${app.stats.flush-interval:PT1M}"
+    )
+    public void flush() {
+        Map<LocalDate, DailyCounts> pending = circulationStats.unflushedCounts();
+        if (!pending.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> pending.forEach((day, counts) ->
+                    dailyCirculationRepository.addCounts(day, counts.checkouts(), counts.returns(),
+                            counts.lateReturns(), counts.reservationsPlaced())));
+            // committed - taken out of memory right away, so a failure below cannot make the next run add it again
+            circulationStats.flushed(pending);
+        }
+
+        Map<LocalDate, DailyCounts> stored = dailyCirculationRepository.findByDayGreaterThanEqual(circulationStats.historyStart()).stream()
+                .collect(Collectors.toMap(DailyCirculation::getDay, DailyCounts::of));
+        circulationStats.storedDaysLoaded(stored);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${app.stats.reconcile-interval:PT15M}",
+            fixedDelayString = "${app.stats.reconcile-interval:PT15M}"
+    )
+    public void reconcile() {
+        Instant startedAt = Instant.now();
+        Map<CopyStatus, Long> copies = toMap(dailyCirculationRepository.countCopiesByStatus(), CopyStatus.class);
+        Map<ReservationStatus, Long> reservations = toMap(dailyCirculationRepository.countReservationsByStatus(), ReservationStatus.class);
+        LoanCountView loans = dailyCirculationRepository.countLoans();
+
+        circulationStats.reconciled(copies, loans.getActive(), loans.getOverdue(), reservations, startedAt);
+        log.debug("CirculationStatsJob: recounted circulation figures in {} ms",
+                Instant.now().toEpochMilli() - startedAt.toEpochMilli());
+    }
+
+    private static <S extends Enum<S>> Map<S, Long> toMap(List<StatusCountView<S>> counts, Class<S> type) {
+        Map<S, Long> result = new EnumMap<>(type);
+        for (StatusCountView<S> count : counts) {
+            result.put(count.getStatus(), count.getTotal());
+        }
+        return result;
+    }
+}
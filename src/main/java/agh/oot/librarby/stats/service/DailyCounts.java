@@ -0,0 +1,29 @@
+package agh.oot.librarby.stats.service;
+
+import agh.oot.librarby.stats.model.DailyCirculation;
+
+/**
+ * Circulation activity counted for one day, either still in memory or read back from {@link DailyCirculation}.
+ */
+public record DailyCounts(long checkouts, long returns, long lateReturns, long reservationsPlaced) {
+
+    public static final DailyCounts ZERO = new DailyCounts(0, 0, 0, 0);
+
+    public static DailyCounts of(DailyCirculation row) {
+        return new DailyCounts(row.getCheckouts(), row.getReturns(), row.getLateReturns(), row.getReservationsPlaced());
+    }
+
+    public DailyCounts plus(DailyCounts other) {
+        return new DailyCounts(checkouts + other.checkouts, returns + other.returns,
+                lateReturns + other.lateReturns, reservationsPlaced + other.reservationsPlaced);
+    }
+
+    public DailyCounts minus(DailyCounts other) {
+        return new DailyCounts(checkouts - other.checkouts, returns - other.returns,
+                lateReturns - other.lateReturns, reservationsPlaced - other.reservationsPlaced);
+    }
+
+    public boolean isZero() {
+        return equals(ZERO);
+    }
+}
@@ -0,0 +1,29 @@
+package agh.oot.librarby.user.event;
+
+import agh.oot.librarby.user.model.UserAccount;
+
+import java.util.Objects;
+
+/**
+ * Published whenever a user account changes in a way that affects authentication
+ * (username, role, deletion). Listeners react after the surrounding transaction commits.
+ *
+ * @param userId       identifier of the affected account
+ * @param oldUsername  username before the change (equal to the current one if it did not change)
+ * @param tokenVersion token version after the change
+ * @param deleted      {@code true} if the account no longer exists
+ */
+public record UserAccountChangedEvent(Long userId, String oldUsername, int tokenVersion, boolean deleted) {
+
+    public UserAccountChangedEvent {
+        Objects.requireNonNull(userId, "userId must not be null");
+    }
+
+    public static UserAccountChangedEvent updated(UserAccount account, String oldUsername) {
+        return new UserAccountChangedEvent(account.getId(), oldUsername, account.getTokenVersion(), false);
+    }
+
+    public static UserAccountChangedEvent deleted(UserAccount account) {
+        return new UserAccountChangedEvent(account.getId(), account.getUsername(), account.getTokenVersion(), true);
+    }
+}
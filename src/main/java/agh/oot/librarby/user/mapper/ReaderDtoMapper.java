@@ -28,7 +28,8 @@ public class ReaderDtoMapper implements UserDtoMapper {
                 profile.getLastName(),
                 Map.of(
                         "dateOfBirth", profile.getDateOfBirth(),
-                        "rentalLimit", profile.getRentalLimit()
+                        "rentalLimit", profile.getRentalLimit(),
+                        "activeLoanCount", profile.getActiveLoanCount()
                 )
         );
     }
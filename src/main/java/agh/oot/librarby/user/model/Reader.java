@@ -1,8 +1,10 @@
 // java
 package agh.oot.librarby.user.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 
@@ -12,6 +14,12 @@ public class Reader extends UserProfile {
 
     private Integer rentalLimit;
 
+    // Number of rentals not returned yet. Only changed by conditional updates in ReaderRepository
+    // (updatable = false keeps a stale in-memory value from ever being written back).
+    @ColumnDefault("0")
+    @Column(name = "active_loan_count", nullable = false, updatable = false)
+    private int activeLoanCount;
+
     private LocalDate dateOfBirth;
 
     protected Reader() {
@@ -35,6 +43,10 @@ public class Reader extends UserProfile {
         this.rentalLimit = rentalLimit;
     }
 
+    public int getActiveLoanCount() {
+        return activeLoanCount;
+    }
+
     public LocalDate getDateOfBirth() {
         return dateOfBirth;
     }
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.Objects;
 
@@ -34,6 +35,11 @@ public class UserAccount {
     @Column(nullable = false)
     private UserRole role;
 
+    // Bumped whenever issued tokens must stop working (role or username change, deletion)
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int tokenVersion;
+
     @OneToOne(mappedBy = "userAccount", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     @JsonIgnore // zapobiega cyklicznej serializacji przez przypadek
     private UserProfile userProfile;
@@ -85,6 +91,14 @@ public class UserAccount {
         this.role = role;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void bumpTokenVersion() {
+        this.tokenVersion++;
+    }
+
     public UserProfile getUserProfile() {
         return userProfile;
     }
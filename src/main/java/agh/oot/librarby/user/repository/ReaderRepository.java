@@ -1,7 +1,60 @@
 package agh.oot.librarby.user.repository;
 
 import agh.oot.librarby.user.model.Reader;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface ReaderRepository extends JpaRepository<Reader, Long> {
+
+    // The counter queries are native: readers is a JOINED subclass table, and a JPQL update of a
+    // multi-table entity would go through Hibernate's temporary-table strategy.
+
+    // Takes loan slots only if the reader stays within the rental limit (null = no limit); 0 rows when it would not
+    @Modifying
+    @Query(value = """
+            update readers set active_loan_count = active_loan_count + :count
+            where id = :readerId and (rental_limit is null or active_loan_count + :count <= rental_limit)
+            """, nativeQuery = true)
+    int tryTakeLoanSlots(@Param("readerId") Long readerId, @Param("count") int count);
+
+    @Modifying
+    @Query(value = "update readers set active_loan_count = greatest(active_loan_count - :count, 0) where id = :readerId",
+            nativeQuery = true)
+    int releaseLoanSlots(@Param("readerId") Long readerId, @Param("count") int count);
+
+    // Reader ids in ascending order, for batch-wise jobs
+    @Query("select r.id from Reader r where r.id > :afterId order by r.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Readers whose counter is still 0 although they have unreturned rentals (counters never filled in), by id
+    @Query("""
+            select distinct l.reader.id from Rental l
+            where l.returnedAt is null and l.reader.activeLoanCount = 0
+            order by l.reader.id
+            """)
+    List<Long> findIdsWithUncountedLoans(Pageable pageable);
+
+    // Sets the counters of the given readers from their unreturned rentals; returns the number of readers updated
+    @Modifying
+    @Query(value = """
+            update readers r
+            set r.active_loan_count = (select count(*) from rentals l where l.reader_id = r.id and l.returned_at is null)
+            where r.id in (:readerIds)
+            """, nativeQuery = true)
+    int countActiveLoans(@Param("readerIds") List<Long> readerIds);
+
+    // Recomputes the counters of the readers in [fromId, toId] from their unreturned rentals; returns the number corrected
+    @Modifying
+    @Query(value = """
+            update readers r
+            set r.active_loan_count = (select count(*) from rentals l where l.reader_id = r.id and l.returned_at is null)
+            where r.id between :fromId and :toId
+              and r.active_loan_count <> (select count(*) from rentals l where l.reader_id = r.id and l.returned_at is null)
+            """, nativeQuery = true)
+    int reconcileActiveLoanCounts(@Param("fromId") Long fromId, @Param("toId") Long toId);
 }
@@ -2,8 +2,10 @@ package agh.oot.librarby.user.repository;
 
 import agh.oot.librarby.user.model.UserAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +15,7 @@ public interface UserAccountRepository extends JpaRepository<UserAccount, Long>
     boolean existsByEmail(String email);
 
     Optional<UserAccount> findByUsername(String username);
+
+    @Query("select u.id as id, u.tokenVersion as tokenVersion from UserAccount u order by u.id")
+    List<UserTokenVersionView> findAllTokenVersions();
 }
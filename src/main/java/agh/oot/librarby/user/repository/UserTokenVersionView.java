@@ -0,0 +1,10 @@
+package agh.oot.librarby.user.repository;
+
+/**
+ * Projection used to refresh the in-memory token version snapshot without loading accounts.
+ */
+public interface UserTokenVersionView {
+    Long getId();
+
+    int getTokenVersion();
+}
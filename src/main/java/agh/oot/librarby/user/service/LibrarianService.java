@@ -1,12 +1,14 @@
 package agh.oot.librarby.user.service;
 
 import agh.oot.librarby.user.dto.UserResponse;
+import agh.oot.librarby.user.event.UserAccountChangedEvent;
 import agh.oot.librarby.user.mapper.UserResponseMapper;
 import agh.oot.librarby.user.model.Librarian;
 import agh.oot.librarby.user.model.UserAccount;
 import agh.oot.librarby.user.model.UserProfile;
 import agh.oot.librarby.user.model.UserRole;
 import agh.oot.librarby.user.repository.UserAccountRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,10 +19,13 @@ public class LibrarianService {
     private final UserAccountRepository userAccountRepository;
 
     private final UserResponseMapper userResponseMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public LibrarianService(UserAccountRepository userAccountRepository, UserResponseMapper userResponseMapper) {
+    public LibrarianService(UserAccountRepository userAccountRepository, UserResponseMapper userResponseMapper,
+                            ApplicationEventPublisher eventPublisher) {
         this.userAccountRepository = userAccountRepository;
         this.userResponseMapper = userResponseMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -40,8 +45,11 @@ public class LibrarianService {
 
         account.setUserProfile(librarian);
         account.setRole(UserRole.LIBRARIAN);
+        // tokens issued before the promotion carry the old role
+        account.bumpTokenVersion();
 
         UserAccount savedAccount = userAccountRepository.save(account);
+        eventPublisher.publishEvent(UserAccountChangedEvent.updated(savedAccount, savedAccount.getUsername()));
 
         return userResponseMapper.toDto(savedAccount);
     }
@@ -3,11 +3,13 @@ package agh.oot.librarby.user.service;
 import agh.oot.librarby.user.dto.MultipleUsersResponse;
 import agh.oot.librarby.user.dto.UserResponse;
 import agh.oot.librarby.user.dto.UserUpdateRequest;
+import agh.oot.librarby.user.event.UserAccountChangedEvent;
 import agh.oot.librarby.user.mapper.UserResponseMapper;
 import agh.oot.librarby.user.model.Reader;
 import agh.oot.librarby.user.model.UserAccount;
 import agh.oot.librarby.user.model.UserRole;
 import agh.oot.librarby.user.repository.UserAccountRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,10 +24,13 @@ public class UserService {
     private final UserAccountRepository userAccountRepository;
 
     private final UserResponseMapper userResponseMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserService(UserAccountRepository userAccountRepository, UserResponseMapper userResponseMapper) {
+    public UserService(UserAccountRepository userAccountRepository, UserResponseMapper userResponseMapper,
+                       ApplicationEventPublisher eventPublisher) {
         this.userAccountRepository = userAccountRepository;
         this.userResponseMapper = userResponseMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     public UserResponse getUserAccount(Long userAccountId) {
@@ -52,8 +57,13 @@ public class UserService {
             throw new IllegalArgumentException("Date of birth cannot be changed if user is not the reader");
         }
 
+        String oldUsername = user.getUsername();
         Optional.ofNullable(request.username())
                 .ifPresent(user::setUsername);
+        if (!Objects.equals(oldUsername, user.getUsername())) {
+            // tokens carry the username as subject
+            user.bumpTokenVersion();
+        }
 
         Optional.ofNullable(request.email())
                 .ifPresent(user::setEmail);
@@ -73,6 +83,7 @@ public class UserService {
         });
 
         UserAccount savedUser = userAccountRepository.save(user);
+        eventPublisher.publishEvent(UserAccountChangedEvent.updated(savedUser, oldUsername));
 
         return userResponseMapper.toDto(savedUser);
     }
@@ -83,6 +94,7 @@ public class UserService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
 
         userAccountRepository.delete(user);
+        eventPublisher.publishEvent(UserAccountChangedEvent.deleted(user));
     }
 
     public MultipleUsersResponse getAllUserAccounts() {
@@ -0,0 +1,59 @@
+package agh.oot.librarby.auth.config;
+
+import agh.oot.librarby.auth.model.CustomUserDetails;
+import agh.oot.librarby.auth.model.VerifiedToken;
+import agh.oot.librarby.cache.BoundedCache;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    private final BoundedCache<String, VerifiedToken> tokenCache = new BoundedCache<>("tokens", 100, Duration.ofHours(24));
+    private final JwtService jwtService = new JwtService(tokenCache);
+
+    @Test
+    void verify_ShouldReturnClaimsOfGeneratedToken() {
+        // Given
+        String token = jwtService.generateToken(new CustomUserDetails(42L, "jan", "secret", List.of()));
+
+        // When
+        VerifiedToken verified = jwtService.verify(token);
+
+        // Then
+        assertThat(verified.subject()).isEqualTo("jan");
+        assertThat(verified.userId()).isEqualTo(42L);
+        assertThat(verified.expiresAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    void verify_ShouldServeRepeatedTokenFromCache() {
+        // Given
+        String token = jwtService.generateToken(new CustomUserDetails(1L, "anna", "secret", List.of()));
+
+        // When
+        jwtService.verify(token);
+        jwtService.verify(token);
+
+        // Then
+        assertThat(tokenCache.stats().hits()).isEqualTo(1);
+        assertThat(tokenCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void verify_ShouldRejectTamperedToken() {
+        // Given
+        String token = jwtService.generateToken(new CustomUserDetails(1L, "anna", "secret", List.of()));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        // When & Then
+        assertThatThrownBy(() -> jwtService.verify(tampered)).isInstanceOf(JwtException.class);
+        assertThat(tokenCache.size()).isEqualTo(0);
+    }
+}
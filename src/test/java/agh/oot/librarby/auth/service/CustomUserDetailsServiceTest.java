@@ -0,0 +1,72 @@
+package agh.oot.librarby.auth.service;
+
+import agh.oot.librarby.auth.model.CustomUserDetails;
+import agh.oot.librarby.cache.BoundedCache;
+import agh.oot.librarby.user.event.UserAccountChangedEvent;
+import agh.oot.librarby.user.model.UserAccount;
+import agh.oot.librarby.user.model.UserRole;
+import agh.oot.librarby.user.repository.UserAccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserAccountRepository userAccountRepository;
+
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        userDetailsService = new CustomUserDetailsService(
+                userAccountRepository, new BoundedCache<>("user-details", 100, Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void loadUserByUsername_ShouldQueryDatabaseOnce_ForRepeatedLookups() {
+        // Given
+        when(userAccountRepository.findByUsername("anna")).thenReturn(Optional.of(account(1L, "anna", UserRole.READER)));
+
+        // When
+        userDetailsService.loadUserByUsername("anna");
+        CustomUserDetails details = userDetailsService.loadUserByUsername("anna");
+
+        // Then
+        assertThat(details.getId()).isEqualTo(1L);
+        verify(userAccountRepository, times(1)).findByUsername("anna");
+    }
+
+    @Test
+    void onUserAccountChanged_ShouldDropCachedAuthorities() {
+        // Given
+        when(userAccountRepository.findByUsername("anna"))
+                .thenReturn(Optional.of(account(1L, "anna", UserRole.READER)))
+                .thenReturn(Optional.of(account(1L, "anna", UserRole.LIBRARIAN)));
+        userDetailsService.loadUserByUsername("anna");
+
+        // When
+        userDetailsService.onUserAccountChanged(new UserAccountChangedEvent(1L, "anna", 1, false));
+        CustomUserDetails details = userDetailsService.loadUserByUsername("anna");
+
+        // Then
+        assertThat(details.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_LIBRARIAN");
+    }
+
+    private static UserAccount account(Long id, String username, UserRole role) {
+        UserAccount account = new UserAccount(username, username + "@example.com", "hash", role);
+        ReflectionTestUtils.setField(account, "id", id);
+        return account;
+    }
+}
@@ -0,0 +1,85 @@
+package agh.oot.librarby.auth.service;
+
+import agh.oot.librarby.auth.service.TokenVersionRegistry.Status;
+import agh.oot.librarby.user.event.UserAccountChangedEvent;
+import agh.oot.librarby.user.repository.UserAccountRepository;
+import agh.oot.librarby.user.repository.UserTokenVersionView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionRegistryTest {
+
+    @Mock
+    private UserAccountRepository userAccountRepository;
+
+    private TokenVersionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new TokenVersionRegistry(userAccountRepository, true);
+    }
+
+    @Test
+    void check_ShouldCompareTokenVersionWithSnapshot() {
+        // Given
+        when(userAccountRepository.findAllTokenVersions()).thenReturn(List.of(version(1L, 0), version(5L, 2)));
+        registry.refresh();
+
+        // When & Then
+        assertThat(registry.check(1L, 0)).isEqualTo(Status.CURRENT);
+        assertThat(registry.check(5L, 1)).isEqualTo(Status.REVOKED);
+        assertThat(registry.check(5L, 3)).isEqualTo(Status.UNKNOWN);
+        assertThat(registry.check(7L, 0)).isEqualTo(Status.UNKNOWN);
+    }
+
+    @Test
+    void onUserAccountChanged_ShouldApplyLocalChangesImmediately() {
+        // Given
+        when(userAccountRepository.findAllTokenVersions()).thenReturn(List.of(version(1L, 0), version(2L, 0)));
+        registry.refresh();
+
+        // When
+        registry.onUserAccountChanged(new UserAccountChangedEvent(1L, "anna", 1, false));
+        registry.onUserAccountChanged(new UserAccountChangedEvent(2L, "jan", 0, true));
+
+        // Then
+        assertThat(registry.check(1L, 0)).isEqualTo(Status.REVOKED);
+        assertThat(registry.check(1L, 1)).isEqualTo(Status.CURRENT);
+        assertThat(registry.check(2L, 0)).isEqualTo(Status.UNKNOWN);
+    }
+
+    @Test
+    void refresh_ShouldDoNothing_WhenStatelessModeIsDisabled() {
+        // Given
+        TokenVersionRegistry disabled = new TokenVersionRegistry(userAccountRepository, false);
+
+        // When
+        disabled.refresh();
+
+        // Then
+        assertThat(disabled.check(1L, 0)).isEqualTo(Status.UNKNOWN);
+    }
+
+    private static UserTokenVersionView version(Long id, int tokenVersion) {
+        return new UserTokenVersionView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public int getTokenVersion() {
+                return tokenVersion;
+            }
+        };
+    }
+}
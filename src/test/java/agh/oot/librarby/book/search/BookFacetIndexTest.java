@@ -0,0 +1,149 @@
+package agh.oot.librarby.book.search;
+
+import agh.oot.librarby.book.event.BookChangedEvent;
+import agh.oot.librarby.book.model.AgeRating;
+import agh.oot.librarby.book.model.Genre;
+import agh.oot.librarby.book.repository.BookFacetView;
+import agh.oot.librarby.book.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookFacetIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookFacetIndex(bookRepository);
+    }
+
+    @Test
+    void filter_ShouldReturnEmptyOptional_BeforeRebuild() {
+        assertThat(index.filter(Genre.FANTASY, null, null, null)).isEmpty();
+        assertThat(index.countFacets(null, null, null, null)).isEmpty();
+    }
+
+    @Test
+    void filter_ShouldIntersectAllGivenFilters() {
+        // Given
+        rebuildWithSampleBooks();
+
+        // When & Then
+        assertThat(ids(index.filter(null, null, null, null).orElseThrow())).containsExactly(1L, 2L, 3L);
+        assertThat(ids(index.filter(Genre.FANTASY, null, null, null).orElseThrow())).containsExactly(1L, 2L);
+        assertThat(ids(index.filter(Genre.FANTASY, 10L, AgeRating.ADULT, null).orElseThrow())).containsExactly(2L);
+        assertThat(ids(index.filter(null, null, null, BookFacetIndex.toBitmap(Set.of(1L, 3L))).orElseThrow()))
+                .containsExactly(1L, 3L);
+        assertThat(ids(index.filter(Genre.HORROR, 99L, null, null).orElseThrow())).isEmpty();
+    }
+
+    @Test
+    void countFacets_ShouldCountEachDimensionWithoutItsOwnFilter() {
+        // Given
+        rebuildWithSampleBooks();
+
+        // When
+        BookFacetIndex.FacetCounts counts = index.countFacets(Genre.FANTASY, null, null, null).orElseThrow();
+
+        // Then
+        assertThat(counts.total()).isEqualTo(2);
+        assertThat(counts.genres()).isEqualTo(Map.of(Genre.FANTASY, 2L, Genre.HORROR, 2L));
+        assertThat(counts.ageRatings()).isEqualTo(Map.of(AgeRating.TEENAGER, 1L, AgeRating.ADULT, 1L));
+    }
+
+    @Test
+    void onBookChanged_ShouldReindexUpdatedAndDropDeletedBooks() {
+        // Given
+        rebuildWithSampleBooks();
+
+        // When
+        index.onBookChanged(new BookChangedEvent(1L, "Dune", Set.of(Genre.SCIENCE_FICTION), AgeRating.ADULT, Set.of(), false));
+        index.onBookChanged(BookChangedEvent.deleted(2L));
+
+        // Then
+        assertThat(ids(index.filter(Genre.FANTASY, null, null, null).orElseThrow())).isEmpty();
+        assertThat(ids(index.filter(null, 10L, null, null).orElseThrow())).isEmpty();
+        assertThat(ids(index.filter(Genre.SCIENCE_FICTION, null, AgeRating.ADULT, null).orElseThrow())).containsExactly(1L);
+    }
+
+    @Test
+    void rebuild_ShouldPickUpBooksChangedOnOtherNodes() {
+        // Given
+        rebuildWithSampleBooks();
+        when(bookRepository.findAllFacets()).thenReturn(List.of(
+                facet(1L, AgeRating.TEENAGER, Set.of(Genre.HORROR), 10L),
+                facet(4L, AgeRating.ADULT, Set.of(Genre.FANTASY), null)
+        ));
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertThat(ids(index.filter(Genre.FANTASY, null, null, null).orElseThrow())).containsExactly(4L);
+        assertThat(ids(index.filter(null, 10L, null, null).orElseThrow())).containsExactly(1L);
+    }
+
+    @Test
+    void page_ShouldReturnIdsAfterCursorInAscendingOrder() {
+        // Given
+        RoaringBitmap ids = BookFacetIndex.toBitmap(List.of(7L, 3L, 11L, 5L));
+
+        // When & Then
+        assertThat(BookFacetIndex.page(ids, null, 2)).containsExactly(3L, 5L);
+        assertThat(BookFacetIndex.page(ids, 5L, 10)).containsExactly(7L, 11L);
+        assertThat(BookFacetIndex.page(ids, 11L, 10)).isEmpty();
+    }
+
+    private void rebuildWithSampleBooks() {
+        when(bookRepository.findAllFacets()).thenReturn(List.of(
+                facet(1L, AgeRating.TEENAGER, Set.of(Genre.FANTASY), 10L),
+                facet(1L, AgeRating.TEENAGER, Set.of(Genre.FANTASY), 11L),
+                facet(2L, AgeRating.ADULT, Set.of(Genre.FANTASY, Genre.HORROR), 10L),
+                facet(3L, AgeRating.ADULT, Set.of(Genre.HORROR), null)
+        ));
+        index.rebuild();
+    }
+
+    private static List<Long> ids(RoaringBitmap bitmap) {
+        return BookFacetIndex.page(bitmap, null, Integer.MAX_VALUE);
+    }
+
+    private static BookFacetView facet(Long bookId, AgeRating ageRating, Set<Genre> genres, Long authorId) {
+        return new BookFacetView() {
+            @Override
+            public Long getBookId() {
+                return bookId;
+            }
+
+            @Override
+            public AgeRating getAgeRating() {
+                return ageRating;
+            }
+
+            @Override
+            public Set<Genre> getGenres() {
+                return genres;
+            }
+
+            @Override
+            public Long getAuthorId() {
+                return authorId;
+            }
+        };
+    }
+}
@@ -0,0 +1,121 @@
+package agh.oot.librarby.book.search;
+
+import agh.oot.librarby.book.event.BookChangedEvent;
+import agh.oot.librarby.book.repository.BookRepository;
+import agh.oot.librarby.book.repository.BookTitleView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookTitleIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookTitleIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookTitleIndex(bookRepository);
+    }
+
+    @Test
+    void findMatches_ShouldReturnEmptyOptional_BeforeRebuild() {
+        assertThat(index.findMatches("gatsby")).isEmpty();
+    }
+
+    @Test
+    void findMatches_ShouldReturnEmptyOptional_WhenQueryHasNoSearchableCharacters() {
+        // Given
+        when(bookRepository.findAllTitles()).thenReturn(List.of(title(1L, "Dune")));
+        index.rebuild();
+
+        // When & Then
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.findMatches("???")).isEmpty();
+    }
+
+    @Test
+    void findMatches_ShouldMatchTitleSubstrings() {
+        // Given
+        when(bookRepository.findAllTitles()).thenReturn(List.of(
+                title(1L, "The Great Gatsby"),
+                title(2L, "Great Expectations"),
+                title(3L, "Dune")
+        ));
+        index.rebuild();
+
+        // When & Then
+        assertThat(index.findMatches("reat gats")).contains(Set.of(1L));
+        assertThat(index.findMatches("gatsby great")).contains(Set.of());
+        assertThat(index.findMatches("GREAT")).contains(Set.of(1L, 2L));
+        assertThat(index.findMatches("une")).contains(Set.of(3L));
+        assertThat(index.findMatches("hobbit")).contains(Set.of());
+    }
+
+    @Test
+    void findMatches_ShouldIgnoreCaseAndDiacritics() {
+        // Given
+        when(bookRepository.findAllTitles()).thenReturn(List.of(title(1L, "Żółwie Ninja")));
+        index.rebuild();
+
+        // When & Then
+        assertThat(index.findMatches("zolw")).contains(Set.of(1L));
+        assertThat(index.findMatches("ZOLWIE nin")).contains(Set.of(1L));
+    }
+
+    @Test
+    void onBookChanged_ShouldReindexUpdatedAndDropDeletedBooks() {
+        // Given
+        when(bookRepository.findAllTitles()).thenReturn(List.of(title(1L, "Dune")));
+        index.rebuild();
+
+        // When
+        index.onBookChanged(new BookChangedEvent(1L, "Children of Dune", Set.of(), null, Set.of(), false));
+        index.onBookChanged(new BookChangedEvent(2L, "Dune Messiah", Set.of(), null, Set.of(), false));
+        index.onBookChanged(BookChangedEvent.deleted(1L));
+
+        // Then
+        assertThat(index.findMatches("dune")).contains(Set.of(2L));
+        assertThat(index.findMatches("children")).contains(Set.of());
+    }
+
+    @Test
+    void rebuild_ShouldPickUpBooksChangedOnOtherNodes() {
+        // Given
+        when(bookRepository.findAllTitles())
+                .thenReturn(List.of(title(1L, "Dune")))
+                .thenReturn(List.of(title(1L, "Dune Messiah"), title(2L, "Children of Dune")));
+        index.rebuild();
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertThat(index.findMatches("dune")).contains(Set.of(1L, 2L));
+        assertThat(index.findMatches("messiah")).contains(Set.of(1L));
+    }
+
+    private static BookTitleView title(Long id, String title) {
+        return new BookTitleView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+        };
+    }
+}
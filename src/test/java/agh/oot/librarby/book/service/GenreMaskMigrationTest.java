@@ -0,0 +1,56 @@
+package agh.oot.librarby.book.service;
+
+import agh.oot.librarby.book.model.Genre;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GenreMaskMigrationTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void run_ShouldWidenTheColumnAndSetPoetryAsAPositiveBigintBit() {
+        // Given
+        GenreMaskMigration migration = new GenreMaskMigration(jdbcTemplate);
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<ResultSetExtractor<String>>any())).thenReturn("int");
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("book_genres"))).thenReturn(1);
+
+        // When
+        migration.run();
+
+        // Then
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("alter table books modify genre_mask bigint not null default 0");
+        order.verify(jdbcTemplate).update(anyString(), eq(2147483648L), eq(Genre.POETRY.name()));
+        order.verify(jdbcTemplate).execute("rename table book_genres to book_genres_legacy");
+    }
+
+    @Test
+    void run_ShouldDoNothing_WhenColumnIsWideAndLegacyTableIsGone() {
+        // Given
+        GenreMaskMigration migration = new GenreMaskMigration(jdbcTemplate);
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<ResultSetExtractor<String>>any())).thenReturn("bigint");
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("book_genres"))).thenReturn(0);
+
+        // When
+        migration.run();
+
+        // Then
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
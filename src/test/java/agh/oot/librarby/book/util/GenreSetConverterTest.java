@@ -0,0 +1,55 @@
+package agh.oot.librarby.book.util;
+
+import agh.oot.librarby.book.model.Genre;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GenreSetConverterTest {
+
+    private final GenreSetConverter converter = new GenreSetConverter();
+
+    @Test
+    void convert_ShouldRoundTripEveryGenre() {
+        // Given
+        Set<Genre> all = EnumSet.allOf(Genre.class);
+
+        // When
+        Long mask = converter.convertToDatabaseColumn(all);
+
+        // Then
+        assertThat(converter.convertToEntityAttribute(mask)).isEqualTo(all);
+    }
+
+    @Test
+    void convert_ShouldMapEmptyAndNullToZero() {
+        assertThat(converter.convertToDatabaseColumn(Set.of())).isZero();
+        assertThat(converter.convertToDatabaseColumn(null)).isZero();
+        assertThat(converter.convertToEntityAttribute(null)).isEmpty();
+    }
+
+    @Test
+    void toMask_ShouldSetOneBitPerGenre() {
+        // When
+        long mask = GenreSetConverter.toMask(Set.of(Genre.FICTION, Genre.POETRY));
+
+        // Then
+        assertThat(mask).isEqualTo(GenreSetConverter.bitOf(Genre.FICTION) | GenreSetConverter.bitOf(Genre.POETRY));
+        assertThat(mask & GenreSetConverter.bitOf(Genre.FANTASY)).isZero();
+    }
+
+    @Test
+    void bitOf_ShouldStayPositive_ForTheLastGenre() {
+        // Given
+        Genre last = Genre.values()[Genre.values().length - 1];
+
+        // When
+        long bit = GenreSetConverter.bitOf(last);
+
+        // Then
+        assertThat(bit).isPositive().isEqualTo(1L << last.ordinal());
+    }
+}
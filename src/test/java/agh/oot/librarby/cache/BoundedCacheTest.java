@@ -0,0 +1,98 @@
+package agh.oot.librarby.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final BoundedCache<Long, String> cache = new BoundedCache<>("test", 2, Duration.ofSeconds(10), now::get);
+
+    @Test
+    void getOrLoad_ShouldLoadOnceAndCountHitsAndMisses() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        cache.getOrLoad(1L, id -> "book-" + loads.incrementAndGet());
+        String value = cache.getOrLoad(1L, id -> "book-" + loads.incrementAndGet());
+
+        // Then
+        assertThat(value).isEqualTo("book-1");
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void getOrLoad_ShouldNotCacheFailedLoads() {
+        assertThatThrownBy(() -> cache.getOrLoad(1L, id -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_ShouldExpireEntriesAfterTtl() {
+        // Given
+        cache.put(1L, "a");
+        cache.put(2L, "b", Duration.ofSeconds(30));
+
+        // When
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // Then
+        assertThat(cache.get(1L)).isEmpty();
+        assertThat(cache.get(2L)).contains("b");
+    }
+
+    @Test
+    void put_ShouldEvictLeastRecentlyUsedEntry_WhenFull() {
+        // Given
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        cache.get(1L);
+
+        // When
+        cache.put(3L, "c");
+
+        // Then
+        assertThat(cache.get(2L)).isEmpty();
+        assertThat(cache.get(1L)).contains("a");
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidateIf_ShouldDropMatchingEntriesOnly() {
+        // Given
+        cache.put(1L, "dune");
+        cache.put(2L, "emma");
+
+        // When
+        cache.invalidateIf(value -> value.startsWith("d"));
+
+        // Then
+        assertThat(cache.get(1L)).isEmpty();
+        assertThat(cache.get(2L)).contains("emma");
+    }
+
+    @Test
+    void getOrLoad_ShouldNotStoreValueLoadedDuringInvalidation() {
+        // When
+        String value = cache.getOrLoad(1L, id -> {
+            cache.invalidate(id); // e.g. a concurrent update committing while we read
+            return "stale";
+        });
+
+        // Then
+        assertThat(value).isEqualTo("stale");
+        assertThat(cache.size()).isZero();
+    }
+}
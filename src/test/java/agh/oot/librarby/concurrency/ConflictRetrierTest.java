@@ -0,0 +1,62 @@
+package agh.oot.librarby.concurrency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConflictRetrierTest {
+
+    private final ConflictRetrier retrier = new ConflictRetrier(TransactionOperations.withoutTransaction(), 3, Duration.ZERO);
+
+    @Test
+    void execute_ShouldRetryUntilWorkSucceeds() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        String result = retrier.execute("checkout", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("ExactBookCopy", 1L);
+            }
+            return "done";
+        });
+
+        // Then
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void execute_ShouldReportConflict_AfterLastAttempt() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When & Then
+        assertThatThrownBy(() -> retrier.execute("checkout", () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("ExactBookCopy", 1L);
+        }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("checkout");
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void execute_ShouldNotRetryOtherFailures() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When & Then
+        assertThatThrownBy(() -> retrier.execute("checkout", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("Exact book copy is not available for rental");
+        })).isInstanceOf(IllegalArgumentException.class);
+        assertThat(attempts).hasValue(1);
+    }
+}
@@ -0,0 +1,110 @@
+package agh.oot.librarby.notification.service;
+
+import agh.oot.librarby.book.model.AgeRating;
+import agh.oot.librarby.book.model.Book;
+import agh.oot.librarby.notification.model.OutboxStatus;
+import agh.oot.librarby.notification.model.ReservationEventOutbox;
+import agh.oot.librarby.notification.model.ReservationEventType;
+import agh.oot.librarby.notification.repository.ReservationEventOutboxRepository;
+import agh.oot.librarby.reservation.model.Reservation;
+import agh.oot.librarby.user.model.Reader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private ReservationEventOutboxRepository outboxRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final Set<ReservationEventOutbox> delivered = ConcurrentHashMap.newKeySet();
+    private ReservationEventOutbox failing;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxRepository, event -> {
+            if (event == failing) {
+                throw new IllegalStateException("SMTP server unavailable");
+            }
+            delivered.add(event);
+        }, transactionTemplate, 10, 3, Duration.ofSeconds(10), Duration.ofSeconds(25), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.shutdown();
+    }
+
+    @Test
+    void relay_ShouldMarkDeliveredEventsSentAndScheduleRetryForFailedOnes() {
+        // Given
+        ReservationEventOutbox ok = event();
+        failing = event();
+        when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(outboxRepository.claimBatch(any(Instant.class), anyInt())).thenReturn(List.of(ok, failing));
+
+        // When
+        relay.relay();
+
+        // Then
+        assertThat(delivered).containsExactly(ok);
+        assertThat(ok.getStatus()).isEqualTo(OutboxStatus.SENT);
+        assertThat(ok.getSentAt()).isNotNull();
+        assertThat(failing.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(failing.getRetryCount()).isEqualTo(1);
+        assertThat(failing.getLastError()).contains("SMTP server unavailable");
+        assertThat(failing.getNextAttemptAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    void nextAttemptAt_ShouldBackOffExponentiallyUpToTheMaximumAndThenGiveUp() {
+        // Given
+        Instant now = Instant.parse("2026-01-01T12:00:00Z");
+
+        // When & Then
+        assertThat(relay.nextAttemptAt(1, now)).isEqualTo(now.plusSeconds(10));
+        assertThat(relay.nextAttemptAt(2, now)).isEqualTo(now.plusSeconds(20));
+        assertThat(relay.nextAttemptAt(3, now)).isNull();
+    }
+
+    @Test
+    void markAttemptFailed_ShouldMarkEventFailed_WhenNoFurtherAttemptIsScheduled() {
+        // Given
+        ReservationEventOutbox event = event();
+
+        // When
+        event.markAttemptFailed("timeout", null);
+
+        // Then
+        assertThat(event.getStatus()).isEqualTo(OutboxStatus.FAILED);
+        assertThat(event.getRetryCount()).isEqualTo(1);
+    }
+
+    private static ReservationEventOutbox event() {
+        Book book = new Book("Solaris", Set.of(), AgeRating.ADULT, Set.of());
+        Reservation reservation = new Reservation(book, new Reader("Jan", "Kowalski", 5, LocalDate.of(2000, 1, 1)));
+        return ReservationEventOutbox.build(reservation, ReservationEventType.READY_FOR_PICKUP);
+    }
+}
@@ -0,0 +1,98 @@
+package agh.oot.librarby.rental.repository;
+
+import agh.oot.librarby.book.model.AgeRating;
+import agh.oot.librarby.book.model.Book;
+import agh.oot.librarby.book.model.BookEdition;
+import agh.oot.librarby.book.model.CopyStatus;
+import agh.oot.librarby.book.model.ExactBookCopy;
+import agh.oot.librarby.rental.model.Rental;
+import agh.oot.librarby.rental.model.RentalStatus;
+import agh.oot.librarby.user.model.Reader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RentalBatchInsertRepositoryImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void insertAll_ShouldBindEveryRentalAndReturnRowsWithGeneratedIds() throws Exception {
+        // Given
+        RentalBatchInsertRepositoryImpl repository = new RentalBatchInsertRepositoryImpl(jdbcTemplate);
+        LocalDate dueDate = LocalDate.now().plusDays(14);
+        List<Rental> rentals = List.of(rental(1L, dueDate), rental(2L, dueDate));
+        ArgumentCaptor<BatchPreparedStatementSetter> setter = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), setter.capture(), any(KeyHolder.class)))
+                .thenAnswer(i -> {
+                    i.<KeyHolder>getArgument(2).getKeyList().addAll(List.of(
+                            Map.of("GENERATED_KEY", 100L), Map.of("GENERATED_KEY", 101L)));
+                    return new int[]{1, 1};
+                });
+
+        // When
+        List<RentalRow> rows = repository.insertAll(rentals);
+
+        // Then
+        assertThat(rows).extracting(RentalRow::id).containsExactly(100L, 101L);
+        assertThat(rows).extracting(RentalRow::copyId).containsExactly(1L, 2L);
+        assertThat(rows.getFirst()).isEqualTo(new RentalRow(100L, 7L, 1L, 5L, 12L, "Solaris", RentalStatus.ACTIVE,
+                dueDate, rentals.getFirst().getRentedAt(), null, false));
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        assertThat(setter.getValue().getBatchSize()).isEqualTo(2);
+        setter.getValue().setValues(statement, 1);
+        verify(statement).setLong(1, 2L);
+        verify(statement).setLong(2, 7L);
+        verify(statement).setLong(4, 12L);
+        verify(statement).setLong(5, 5L);
+        verify(statement).setDate(6, Date.valueOf(dueDate));
+        verify(statement).setString(7, "ACTIVE");
+    }
+
+    @Test
+    void insertAll_ShouldSkipTheDatabase_WhenThereIsNothingToInsert() {
+        // When
+        List<RentalRow> rows = new RentalBatchInsertRepositoryImpl(jdbcTemplate).insertAll(List.of());
+
+        // Then
+        assertThat(rows).isEmpty();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static Rental rental(Long copyId, LocalDate dueDate) {
+        Book book = new Book("Solaris", Set.of(), AgeRating.ADULT, Set.of());
+        ReflectionTestUtils.setField(book, "id", 12L);
+        BookEdition edition = new BookEdition();
+        edition.setBook(book);
+        ReflectionTestUtils.setField(edition, "id", 5L);
+        ExactBookCopy copy = new ExactBookCopy(edition, CopyStatus.AVAILABLE);
+        ReflectionTestUtils.setField(copy, "id", copyId);
+        Reader reader = new Reader("Jan", "Kowalski", 5, LocalDate.of(2000, 1, 1));
+        ReflectionTestUtils.setField(reader, "id", 7L);
+        return new Rental(copy, reader, dueDate, RentalStatus.ACTIVE);
+    }
+}
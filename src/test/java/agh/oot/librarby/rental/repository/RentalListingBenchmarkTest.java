@@ -0,0 +1,193 @@
+package agh.oot.librarby.rental.repository;
+
+import agh.oot.librarby.book.model.AgeRating;
+import agh.oot.librarby.book.model.Book;
+import agh.oot.librarby.book.model.BookEdition;
+import agh.oot.librarby.book.model.CopyStatus;
+import agh.oot.librarby.book.model.ExactBookCopy;
+import agh.oot.librarby.book.model.ISBN;
+import agh.oot.librarby.book.repository.BookEditionRepository;
+import agh.oot.librarby.book.repository.BookRepository;
+import agh.oot.librarby.book.repository.ExactBookCopyRepository;
+import agh.oot.librarby.rental.dto.RentalResponse;
+import agh.oot.librarby.rental.mapper.RentalResponseMapper;
+import agh.oot.librarby.rental.model.Rental;
+import agh.oot.librarby.user.model.Reader;
+import agh.oot.librarby.user.model.UserAccount;
+import agh.oot.librarby.user.model.UserRole;
+import agh.oot.librarby.user.repository.UserAccountRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the rental listing read paths: entities loaded with the {@code Rental.withDetails} graph and mapped
+ * to DTOs, against the {@link RentalRow} constructor projection. Reports latency and heap allocated by the
+ * calling thread per call.
+ *
+ * <p>Needs Docker; excluded from {@code test}, run with {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+class RentalListingBenchmarkTest {
+
+    private static final int READERS = 50;
+    private static final int COPIES = 200;
+    private static final int RENTALS = 20_000;
+    private static final int WARMUP = 10;
+    private static final int ITERATIONS = 30;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.4");
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private RentalResponseMapper rentalResponseMapper;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookEditionRepository bookEditionRepository;
+
+    @Autowired
+    private ExactBookCopyRepository exactBookCopyRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private record Result(String name, double millisPerCall, long bytesPerCall) {
+        @Override
+        public String toString() {
+            return String.format("%-40s %10.2f ms %14d B", name, millisPerCall, bytesPerCall);
+        }
+    }
+
+    @BeforeAll
+    void seed() {
+        Book book = bookRepository.save(new Book("Benchmark", Set.of(), AgeRating.ADULT, Set.of()));
+        BookEdition edition = new BookEdition(new ISBN("9780306406157"), 300, Year.of(2000), null, Locale.ENGLISH);
+        edition.setBook(book);
+        bookEditionRepository.save(edition);
+
+        List<Long> copyIds = new ArrayList<>(COPIES);
+        for (int i = 0; i < COPIES; i++) {
+            copyIds.add(exactBookCopyRepository.save(new ExactBookCopy(edition, CopyStatus.AVAILABLE)).getId());
+        }
+
+        List<Long> readerIds = new ArrayList<>(READERS);
+        for (int i = 0; i < READERS; i++) {
+            UserAccount account = new UserAccount("reader" + i, "reader" + i + "@example.com", "x", UserRole.READER);
+            Reader reader = new Reader("Reader", String.valueOf(i), 5, LocalDate.of(2000, 1, 1));
+            account.setUserProfile(reader);
+            reader.setUserAccount(account);
+            readerIds.add(userAccountRepository.save(account).getId());
+        }
+
+        // rentals in bulk over plain JDBC; the benchmark measures reads only
+        Instant start = Instant.now().minus(RENTALS, ChronoUnit.MINUTES);
+        List<Object[]> rows = new ArrayList<>(RENTALS);
+        for (int i = 0; i < RENTALS; i++) {
+            Instant rentedAt = start.plus(i, ChronoUnit.MINUTES);
+            rows.add(new Object[]{copyIds.get(i % COPIES), readerIds.get(i % READERS), Timestamp.from(rentedAt),
+                    LocalDate.now().plusDays(14), Timestamp.from(rentedAt.plus(3, ChronoUnit.DAYS)), "ON_TIME"});
+        }
+        jdbcTemplate.batchUpdate("insert into rentals (copy_id, reader_id, rented_at, due_date, returned_at, status, overdue) "
+                + "values (?, ?, ?, ?, ?, ?, false)", rows);
+    }
+
+    @Test
+    void projectionShouldAllocateLessThanEntityGraph() {
+        List<Result> results = new ArrayList<>();
+        for (int size : new int[]{100, RENTALS}) {
+            Result entities = measure("entity graph, " + size + " rows", () -> listWithEntityGraph(size));
+            Result projection = measure("constructor projection, " + size + " rows", () -> listWithProjection(size));
+            results.add(entities);
+            results.add(projection);
+
+            assertThat(projection.bytesPerCall()).isLessThan(entities.bytesPerCall());
+        }
+
+        System.out.println("RentalListingBenchmarkTest (" + ITERATIONS + " iterations after " + WARMUP + " warm-up calls)");
+        results.forEach(System.out::println);
+    }
+
+    // the pre-projection read path: managed entities with dirty-checking snapshots, mapped afterwards
+    private List<RentalResponse> listWithEntityGraph(int size) {
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("select r from Rental r order by r.rentedAt desc, r.id desc", Rental.class)
+                .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph("Rental.withDetails"))
+                .setMaxResults(size)
+                .getResultList()
+                .stream()
+                .map(rentalResponseMapper::toDto)
+                .toList());
+    }
+
+    private List<RentalResponse> listWithProjection(int size) {
+        return transactionTemplate.execute(status -> rentalRepository.findPage(null, null, null, size)
+                .stream()
+                .map(rentalResponseMapper::toDto)
+                .toList());
+    }
+
+    private static Result measure(String name, Supplier<List<RentalResponse>> call) {
+        for (int i = 0; i < WARMUP; i++) {
+            call.get();
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long nanosBefore = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertThat(call.get()).isNotEmpty();
+        }
+        long nanos = System.nanoTime() - nanosBefore;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        return new Result(name, nanos / 1e6 / ITERATIONS, bytes / ITERATIONS);
+    }
+}
@@ -0,0 +1,61 @@
+package agh.oot.librarby.rental.service;
+
+import agh.oot.librarby.user.repository.ReaderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveLoanCountBackfillTest {
+
+    @Mock
+    private ReaderRepository readerRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void run_ShouldCountLoansBatchByBatchUntilNoReaderIsLeft() {
+        // Given
+        ActiveLoanCountBackfill backfill = new ActiveLoanCountBackfill(readerRepository, transactionTemplate, 2);
+        when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(readerRepository.findIdsWithUncountedLoans(any(Pageable.class)))
+                .thenReturn(List.of(3L, 5L))
+                .thenReturn(List.of(8L));
+        when(readerRepository.countActiveLoans(List.of(3L, 5L))).thenReturn(2);
+        when(readerRepository.countActiveLoans(List.of(8L))).thenReturn(1);
+
+        // When
+        backfill.run();
+
+        // Then
+        verify(readerRepository, times(2)).findIdsWithUncountedLoans(any(Pageable.class));
+        verify(readerRepository).countActiveLoans(List.of(8L));
+    }
+
+    @Test
+    void run_ShouldStop_WhenABatchCannotBeCounted() {
+        // Given
+        ActiveLoanCountBackfill backfill = new ActiveLoanCountBackfill(readerRepository, transactionTemplate, 2);
+        when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(readerRepository.findIdsWithUncountedLoans(any(Pageable.class))).thenReturn(List.of(3L, 5L));
+        when(readerRepository.countActiveLoans(List.of(3L, 5L))).thenReturn(0);
+
+        // When
+        backfill.run();
+
+        // Then
+        verify(readerRepository).findIdsWithUncountedLoans(any(Pageable.class));
+    }
+}
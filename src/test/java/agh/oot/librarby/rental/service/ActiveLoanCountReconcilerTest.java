@@ -0,0 +1,66 @@
+package agh.oot.librarby.rental.service;
+
+import agh.oot.librarby.lease.JobLeaseService;
+import agh.oot.librarby.user.repository.ReaderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveLoanCountReconcilerTest {
+
+    @Mock
+    private ReaderRepository readerRepository;
+
+    @Mock
+    private JobLeaseService jobLeaseService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void reconcile_ShouldRecountReaderRangesBatchByBatch() {
+        // Given
+        ActiveLoanCountReconciler reconciler = new ActiveLoanCountReconciler(
+                readerRepository, jobLeaseService, transactionTemplate, 2, Duration.ofMinutes(10));
+        when(jobLeaseService.tryAcquire(eq(ActiveLoanCountReconciler.LEASE), any())).thenReturn(true);
+        when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(readerRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(3L, 5L));
+        when(readerRepository.findIdsAfter(eq(5L), any(Pageable.class))).thenReturn(List.of(8L));
+
+        // When
+        reconciler.reconcile();
+
+        // Then
+        verify(readerRepository).reconcileActiveLoanCounts(3L, 5L);
+        verify(readerRepository).reconcileActiveLoanCounts(8L, 8L);
+        verify(jobLeaseService).release(ActiveLoanCountReconciler.LEASE);
+    }
+
+    @Test
+    void reconcile_ShouldDoNothing_WhenAnotherNodeHoldsTheLease() {
+        // Given
+        ActiveLoanCountReconciler reconciler = new ActiveLoanCountReconciler(
+                readerRepository, jobLeaseService, transactionTemplate, 2, Duration.ofMinutes(10));
+        when(jobLeaseService.tryAcquire(eq(ActiveLoanCountReconciler.LEASE), any())).thenReturn(false);
+
+        // When
+        reconciler.reconcile();
+
+        // Then
+        verifyNoInteractions(readerRepository);
+    }
+}
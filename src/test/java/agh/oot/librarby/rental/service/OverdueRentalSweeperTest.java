@@ -0,0 +1,75 @@
+package agh.oot.librarby.rental.service;
+
+import agh.oot.librarby.lease.JobLeaseService;
+import agh.oot.librarby.rental.repository.RentalRepository;
+import agh.oot.librarby.stats.service.CirculationStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OverdueRentalSweeperTest {
+
+    @Mock
+    private RentalRepository rentalRepository;
+
+    @Mock
+    private JobLeaseService jobLeaseService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void sweep_ShouldFlagBatchesUntilAPartialBatchIsFound() {
+        // Given
+        OverdueRentalSweeper sweeper = sweeper();
+        when(jobLeaseService.tryAcquire(eq(OverdueRentalSweeper.LEASE), any())).thenReturn(true);
+        when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(rentalRepository.findNewlyOverdueIds(any(LocalDate.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(rentalRepository.markOverdue(any())).thenReturn(2, 1);
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verify(rentalRepository, times(2)).findNewlyOverdueIds(any(LocalDate.class), any(Pageable.class));
+        verify(rentalRepository).markOverdue(List.of(1L, 2L));
+        verify(rentalRepository).markOverdue(List.of(3L));
+        verify(jobLeaseService).release(OverdueRentalSweeper.LEASE);
+    }
+
+    @Test
+    void sweep_ShouldDoNothing_WhenAnotherNodeHoldsTheLease() {
+        // Given
+        OverdueRentalSweeper sweeper = sweeper();
+        when(jobLeaseService.tryAcquire(eq(OverdueRentalSweeper.LEASE), any())).thenReturn(false);
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verifyNoInteractions(rentalRepository);
+    }
+
+    private OverdueRentalSweeper sweeper() {
+        return new OverdueRentalSweeper(rentalRepository, jobLeaseService, transactionTemplate,
+                new CirculationStats(30), 2, Duration.ofMinutes(10));
+    }
+}
@@ -0,0 +1,77 @@
+package agh.oot.librarby.rental.service;
+
+import agh.oot.librarby.lease.JobLeaseService;
+import agh.oot.librarby.rental.repository.ArchivedRentalRepository;
+import agh.oot.librarby.rental.repository.RentalRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RentalArchiverTest {
+
+    @Mock
+    private RentalRepository rentalRepository;
+
+    @Mock
+    private ArchivedRentalRepository archivedRentalRepository;
+
+    @Mock
+    private JobLeaseService jobLeaseService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void archive_ShouldCopyAndDeleteReturnedRentalsBatchByBatch() {
+        // Given
+        RentalArchiver archiver = archiver();
+        when(jobLeaseService.tryAcquire(eq(RentalArchiver.LEASE), any())).thenReturn(true);
+        when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(rentalRepository.findIdsReturnedBefore(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(3L, 5L))
+                .thenReturn(List.of(8L));
+        when(rentalRepository.deleteArchived(List.of(3L, 5L))).thenReturn(2);
+        when(rentalRepository.deleteArchived(List.of(8L))).thenReturn(1);
+
+        // When
+        archiver.archive();
+
+        // Then
+        verify(archivedRentalRepository).copyFromRentals(eq(List.of(3L, 5L)), any(Instant.class));
+        verify(archivedRentalRepository).copyFromRentals(eq(List.of(8L)), any(Instant.class));
+        verify(jobLeaseService).release(RentalArchiver.LEASE);
+    }
+
+    @Test
+    void archive_ShouldDoNothing_WhenAnotherNodeHoldsTheLease() {
+        // Given
+        RentalArchiver archiver = archiver();
+        when(jobLeaseService.tryAcquire(eq(RentalArchiver.LEASE), any())).thenReturn(false);
+
+        // When
+        archiver.archive();
+
+        // Then
+        verifyNoInteractions(rentalRepository, archivedRentalRepository);
+    }
+
+    private RentalArchiver archiver() {
+        return new RentalArchiver(rentalRepository, archivedRentalRepository, jobLeaseService, transactionTemplate,
+                24, 2, Duration.ZERO, Duration.ofMinutes(10));
+    }
+}
@@ -0,0 +1,61 @@
+package agh.oot.librarby.rental.service;
+
+import agh.oot.librarby.rental.repository.RentalRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RentalBookIdBackfillTest {
+
+    @Mock
+    private RentalRepository rentalRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void run_ShouldFillRentalsBatchByBatchUntilNoneAreLeft() {
+        // Given
+        RentalBookIdBackfill backfill = new RentalBookIdBackfill(rentalRepository, transactionTemplate, 2);
+        when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(rentalRepository.findIdsWithoutBookId(any(Pageable.class)))
+                .thenReturn(List.of(3L, 5L))
+                .thenReturn(List.of(8L));
+        when(rentalRepository.backfillBookIds(List.of(3L, 5L))).thenReturn(2);
+        when(rentalRepository.backfillBookIds(List.of(8L))).thenReturn(1);
+
+        // When
+        backfill.run();
+
+        // Then
+        verify(rentalRepository, times(2)).findIdsWithoutBookId(any(Pageable.class));
+        verify(rentalRepository).backfillBookIds(List.of(8L));
+    }
+
+    @Test
+    void run_ShouldStop_WhenABatchCannotBeFilled() {
+        // Given
+        RentalBookIdBackfill backfill = new RentalBookIdBackfill(rentalRepository, transactionTemplate, 2);
+        when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(rentalRepository.findIdsWithoutBookId(any(Pageable.class))).thenReturn(List.of(3L, 5L));
+        when(rentalRepository.backfillBookIds(List.of(3L, 5L))).thenReturn(0);
+
+        // When
+        backfill.run();
+
+        // Then
+        verify(rentalRepository).findIdsWithoutBookId(any(Pageable.class));
+    }
+}
@@ -0,0 +1,286 @@
+package agh.oot.librarby.rental.service;
+
+import agh.oot.librarby.book.model.CopyStatus;
+import agh.oot.librarby.book.model.ExactBookCopy;
+import agh.oot.librarby.book.repository.ExactBookCopyRepository;
+import agh.oot.librarby.concurrency.ConflictRetrier;
+import agh.oot.librarby.rental.dto.BulkCheckoutRequest;
+import agh.oot.librarby.rental.dto.BulkItemResult;
+import agh.oot.librarby.rental.dto.BulkItemStatus;
+import agh.oot.librarby.rental.dto.BulkMode;
+import agh.oot.librarby.rental.dto.BulkRentalResponse;
+import agh.oot.librarby.rental.dto.BulkReturnRequest;
+import agh.oot.librarby.rental.dto.CreateRentalRequest;
+import agh.oot.librarby.rental.dto.MultipleRentalsResponse;
+import agh.oot.librarby.rental.dto.RentalResponse;
+import agh.oot.librarby.rental.mapper.RentalResponseMapper;
+import agh.oot.librarby.rental.model.Rental;
+import agh.oot.librarby.rental.model.RentalStatus;
+import agh.oot.librarby.rental.repository.ArchivedRentalRepository;
+import agh.oot.librarby.rental.repository.RentalRepository;
+import agh.oot.librarby.rental.repository.RentalRow;
+import agh.oot.librarby.reservation.service.ReservationService;
+import agh.oot.librarby.stats.service.CirculationStats;
+import agh.oot.librarby.user.model.Reader;
+import agh.oot.librarby.user.repository.ReaderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RentalServiceImplTest {
+
+    @Mock
+    private RentalRepository rentalRepository;
+
+    @Mock
+    private ArchivedRentalRepository archivedRentalRepository;
+
+    @Mock
+    private ExactBookCopyRepository exactBookCopyRepository;
+
+    @Mock
+    private ReaderRepository readerRepository;
+
+    @Mock
+    private RentalResponseMapper rentalResponseMapper;
+
+    @Mock
+    private ReservationService reservationService;
+
+    private RentalServiceImpl rentalService;
+
+    private final Reader reader = new Reader("Jan", "Kowalski", 5, LocalDate.of(2000, 1, 1));
+    private ExactBookCopy available;
+    private ExactBookCopy borrowed;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reader, "id", 7L);
+        rentalService = new RentalServiceImpl(rentalRepository, archivedRentalRepository, exactBookCopyRepository,
+                readerRepository, rentalResponseMapper, reservationService,
+                new ConflictRetrier(TransactionOperations.withoutTransaction(), 3, Duration.ZERO), new CirculationStats(30));
+        available = copy(1L, CopyStatus.AVAILABLE);
+        borrowed = copy(2L, CopyStatus.BORROWED);
+    }
+
+    @Test
+    void createRentals_ShouldWriteNothing_WhenAnyCopyFailsInAllOrNothingMode() {
+        // Given
+        BulkCheckoutRequest request = request(BulkMode.ALL_OR_NOTHING, 1L, 2L, 3L);
+        givenReaderAndCopies();
+
+        // When
+        BulkRentalResponse response = rentalService.createRentals(request);
+
+        // Then
+        assertThat(response.items()).extracting(BulkItemResult::status).containsExactly(
+                BulkItemStatus.ROLLED_BACK, BulkItemStatus.NOT_AVAILABLE, BulkItemStatus.NOT_FOUND);
+        assertThat(response.succeeded()).isZero();
+        assertThat(available.getStatus()).isEqualTo(CopyStatus.AVAILABLE);
+        verify(rentalRepository, never()).insertAll(any());
+    }
+
+    @Test
+    void createRentals_ShouldRentValidCopiesOnly_InPartialMode() {
+        // Given
+        BulkCheckoutRequest request = request(BulkMode.PARTIAL, 2L, 1L, 1L);
+        givenReaderAndCopies();
+        when(readerRepository.tryTakeLoanSlots(7L, 1)).thenReturn(1);
+        when(rentalRepository.insertAll(anyList())).thenAnswer(i -> insertedRows(i.getArgument(0)));
+
+        // When
+        BulkRentalResponse response = rentalService.createRentals(request);
+
+        // Then
+        assertThat(response.items()).extracting(BulkItemResult::status).containsExactly(
+                BulkItemStatus.NOT_AVAILABLE, BulkItemStatus.SUCCEEDED, BulkItemStatus.DUPLICATE);
+        assertThat(response.succeeded()).isEqualTo(1);
+        assertThat(response.failed()).isEqualTo(2);
+        assertThat(available.getStatus()).isEqualTo(CopyStatus.BORROWED);
+        verify(exactBookCopyRepository).findByIdIn(anyCollection());
+    }
+
+    @Test
+    void returnRentals_ShouldReturnActiveRentalsAndReportUnknownCopies() {
+        // Given
+        Rental onTime = new Rental(borrowed, reader, LocalDate.now().plusDays(1), RentalStatus.ACTIVE);
+        ExactBookCopy overdueCopy = copy(3L, CopyStatus.BORROWED);
+        Rental overdue = new Rental(overdueCopy, reader, LocalDate.now().minusDays(1), RentalStatus.ACTIVE);
+        when(rentalRepository.findActiveByCopyIdIn(anyCollection())).thenReturn(List.of(onTime, overdue));
+
+        // When
+        BulkRentalResponse response = rentalService.returnRentals(new BulkReturnRequest(List.of(2L, 9L, 3L)));
+
+        // Then
+        assertThat(response.items()).extracting(BulkItemResult::status).containsExactly(
+                BulkItemStatus.SUCCEEDED, BulkItemStatus.NOT_FOUND, BulkItemStatus.SUCCEEDED);
+        assertThat(onTime.getStatus()).isEqualTo(RentalStatus.ON_TIME);
+        assertThat(overdue.getStatus()).isEqualTo(RentalStatus.LATE);
+        assertThat(onTime.getReturnedAt()).isNotNull();
+        assertThat(borrowed.getStatus()).isEqualTo(CopyStatus.AVAILABLE);
+        assertThat(overdueCopy.getStatus()).isEqualTo(CopyStatus.AVAILABLE);
+        verify(reservationService).promoteNextReservation(borrowed);
+        verify(reservationService).promoteNextReservation(overdueCopy);
+        verify(readerRepository).releaseLoanSlots(7L, 2);
+    }
+
+    @Test
+    void createRentals_ShouldRentOnlyUpToRentalLimit_InPartialMode() {
+        // Given
+        ExactBookCopy another = copy(3L, CopyStatus.AVAILABLE);
+        when(readerRepository.findById(7L)).thenReturn(Optional.of(reader));
+        when(exactBookCopyRepository.findByIdIn(anyCollection())).thenReturn(List.of(available, another));
+        when(readerRepository.tryTakeLoanSlots(7L, 2)).thenReturn(0);
+        when(readerRepository.tryTakeLoanSlots(7L, 1)).thenReturn(1);
+        ReflectionTestUtils.setField(reader, "activeLoanCount", 4);
+        when(rentalRepository.insertAll(anyList())).thenAnswer(i -> insertedRows(i.getArgument(0)));
+
+        // When
+        BulkRentalResponse response = rentalService.createRentals(request(BulkMode.PARTIAL, 1L, 3L));
+
+        // Then
+        assertThat(response.items()).extracting(BulkItemResult::status).containsExactly(
+                BulkItemStatus.SUCCEEDED, BulkItemStatus.LIMIT_EXCEEDED);
+        assertThat(available.getStatus()).isEqualTo(CopyStatus.BORROWED);
+        assertThat(another.getStatus()).isEqualTo(CopyStatus.AVAILABLE);
+    }
+
+    @Test
+    void createRental_ShouldReject_WhenReaderIsAtRentalLimit() {
+        // Given
+        when(readerRepository.findById(7L)).thenReturn(Optional.of(reader));
+        when(exactBookCopyRepository.findById(1L)).thenReturn(Optional.of(available));
+        when(readerRepository.tryTakeLoanSlots(7L, 1)).thenReturn(0);
+
+        // When & Then
+        assertThatThrownBy(() -> rentalService.createRental(new CreateRentalRequest(7L, 1L, LocalDate.now().plusDays(14))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("rental limit");
+        assertThat(available.getStatus()).isEqualTo(CopyStatus.AVAILABLE);
+        verify(rentalRepository, never()).save(any());
+    }
+
+    @Test
+    void getRentals_ShouldReturnCursorOfLastRow_WhenMoreRowsExist() {
+        // Given
+        RentalRow newest = row(11L, Instant.parse("2026-01-03T10:00:00Z"));
+        RentalRow older = row(10L, Instant.parse("2026-01-02T10:00:00Z"));
+        RentalRow oldest = row(9L, Instant.parse("2026-01-01T10:00:00Z"));
+        when(rentalRepository.findPage(any(), isNull(), isNull(), eq(3))).thenReturn(List.of(newest, older, oldest));
+        when(rentalRepository.findPage(any(), eq(older.rentedAt()), eq(10L), eq(3))).thenReturn(List.of(oldest));
+
+        // When
+        MultipleRentalsResponse firstPage = rentalService.getRentals(7L, null, null, null, 2, null);
+        MultipleRentalsResponse secondPage = rentalService.getRentals(7L, null, null, null, 2, firstPage.nextCursor());
+
+        // Then
+        assertThat(firstPage.rentals()).hasSize(2);
+        assertThat(firstPage.nextCursor()).isNotNull();
+        assertThat(secondPage.rentals()).hasSize(1);
+        assertThat(secondPage.nextCursor()).isNull();
+    }
+
+    @Test
+    void getRentals_ShouldMergeArchivedRentals_WhenCurrentRentalsDoNotFillThePage() {
+        // Given
+        RentalRow current = row(20L, Instant.parse("2026-01-03T10:00:00Z"));
+        RentalRow archivedNewer = row(5L, Instant.parse("2026-01-02T10:00:00Z"));
+        RentalRow archivedOlder = row(4L, Instant.parse("2024-01-01T10:00:00Z"));
+        when(rentalRepository.findPage(any(), isNull(), isNull(), eq(3))).thenReturn(List.of(current));
+        when(archivedRentalRepository.findPage(any(), isNull(), isNull(), eq(3))).thenReturn(List.of(archivedNewer, archivedOlder));
+        when(rentalResponseMapper.toDto(any(RentalRow.class))).thenAnswer(i -> response(i.getArgument(0)));
+
+        // When
+        MultipleRentalsResponse page = rentalService.getRentals(7L, null, null, false, 2, null);
+
+        // Then
+        assertThat(page.rentals()).extracting(RentalResponse::id).containsExactly(20L, 5L);
+        assertThat(page.nextCursor()).isNotNull();
+    }
+
+    @Test
+    void getRentals_ShouldSkipArchive_WhenPageHasOnlyRentalsNewerThanTheArchive() {
+        // Given
+        RentalRow newest = row(11L, Instant.parse("2026-01-03T10:00:00Z"));
+        RentalRow older = row(10L, Instant.parse("2026-01-02T10:00:00Z"));
+        when(rentalRepository.findPage(any(), isNull(), isNull(), eq(2))).thenReturn(List.of(newest, older));
+        when(archivedRentalRepository.findNewestRentedAt()).thenReturn(Optional.of(Instant.parse("2024-01-01T10:00:00Z")));
+
+        // When
+        MultipleRentalsResponse page = rentalService.getRentals(null, null, null, null, 1, null);
+
+        // Then
+        assertThat(page.rentals()).hasSize(1);
+        verify(archivedRentalRepository, never()).findPage(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getRentalById_ShouldFallBackToArchive() {
+        // Given
+        RentalRow archived = row(4L, Instant.parse("2024-01-01T10:00:00Z"));
+        when(rentalRepository.findRowById(4L)).thenReturn(Optional.empty());
+        when(archivedRentalRepository.findRowById(4L)).thenReturn(Optional.of(archived));
+        when(rentalResponseMapper.toDto(archived)).thenAnswer(i -> response(archived));
+
+        // When
+        RentalResponse response = rentalService.getRentalById(4L);
+
+        // Then
+        assertThat(response.id()).isEqualTo(4L);
+    }
+
+    private void givenReaderAndCopies() {
+        when(readerRepository.findById(7L)).thenReturn(Optional.of(reader));
+        when(exactBookCopyRepository.findByIdIn(anyCollection())).thenReturn(List.of(available, borrowed));
+    }
+
+    private static BulkCheckoutRequest request(BulkMode mode, Long... copyIds) {
+        return new BulkCheckoutRequest(7L, List.of(copyIds), LocalDate.now().plusDays(14), mode);
+    }
+
+    private static List<RentalRow> insertedRows(List<Rental> rentals) {
+        return rentals.stream()
+                .map(rental -> new RentalRow(rental.getExactBookCopy().getId(), 7L, rental.getExactBookCopy().getId(), 5L, 12L,
+                        "Solaris", rental.getStatus(), rental.getDueDate(), rental.getRentedAt(), null, false))
+                .toList();
+    }
+
+    private static RentalRow row(Long id, Instant rentedAt) {
+        return new RentalRow(id, 7L, 2L, 5L, 12L, "Solaris", RentalStatus.ACTIVE, LocalDate.now().plusDays(14),
+                rentedAt, null, false);
+    }
+
+    private static RentalResponse response(RentalRow row) {
+        return new RentalResponse(row.id(), row.readerId(), row.copyId(), row.editionId(), row.bookId(),
+                row.bookTitle(), row.status(), row.dueDate(), null, null, row.overdue());
+    }
+
+    private static ExactBookCopy copy(Long id, CopyStatus status) {
+        ExactBookCopy copy = new ExactBookCopy(null, status);
+        ReflectionTestUtils.setField(copy, "id", id);
+        return copy;
+    }
+}
@@ -0,0 +1,65 @@
+package agh.oot.librarby.reservation.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderStatisticTreapTest {
+
+    @Test
+    void rank_ShouldReturnZeroBasedIndexOrMinusOneForMissingKeys() {
+        // Given
+        OrderStatisticTreap<Integer> treap = new OrderStatisticTreap<>();
+        List.of(50, 10, 40, 20, 30).forEach(treap::add);
+
+        // When & Then
+        assertThat(treap.size()).isEqualTo(5);
+        assertThat(treap.rank(10)).isZero();
+        assertThat(treap.rank(30)).isEqualTo(2);
+        assertThat(treap.rank(50)).isEqualTo(4);
+        assertThat(treap.rank(35)).isEqualTo(-1);
+    }
+
+    @Test
+    void addAndRemove_ShouldIgnoreDuplicatesAndMissingKeys() {
+        // Given
+        OrderStatisticTreap<Integer> treap = new OrderStatisticTreap<>();
+
+        // When & Then
+        assertThat(treap.add(1)).isTrue();
+        assertThat(treap.add(1)).isFalse();
+        assertThat(treap.remove(2)).isFalse();
+        assertThat(treap.remove(1)).isTrue();
+        assertThat(treap.isEmpty()).isTrue();
+    }
+
+    @Test
+    void rank_ShouldMatchSortedSet_AfterRandomInsertsAndRemovals() {
+        // Given
+        Random random = new Random(42);
+        OrderStatisticTreap<Integer> treap = new OrderStatisticTreap<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+
+        // When
+        for (int i = 0; i < 5_000; i++) {
+            int key = random.nextInt(1_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(treap.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                assertThat(treap.add(key)).isEqualTo(expected.add(key));
+            }
+        }
+
+        // Then
+        assertThat(treap.size()).isEqualTo(expected.size());
+        List<Integer> sorted = new ArrayList<>(expected);
+        for (int i = 0; i < sorted.size(); i++) {
+            assertThat(treap.rank(sorted.get(i))).isEqualTo(i);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package agh.oot.librarby.reservation.queue;
+
+import agh.oot.librarby.reservation.event.ReservationChangedEvent;
+import agh.oot.librarby.reservation.model.ReservationStatus;
+import agh.oot.librarby.reservation.repository.ReservationQueueView;
+import agh.oot.librarby.reservation.repository.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationQueueIndexTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T10:00:00Z");
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    private ReservationQueueIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ReservationQueueIndex(reservationRepository);
+    }
+
+    @Test
+    void position_ShouldFollowReservationTime() {
+        // Given
+        when(reservationRepository.findAllPendingQueueEntries()).thenReturn(List.of(
+                view(3L, 12L, T0.plusSeconds(20)),
+                view(1L, 12L, T0),
+                view(2L, 12L, T0.plusSeconds(10)),
+                view(4L, 13L, T0)
+        ));
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.position(1L)).contains(new ReservationQueueIndex.QueuePosition(12L, 1, 3));
+        assertThat(index.position(3L)).contains(new ReservationQueueIndex.QueuePosition(12L, 3, 3));
+        assertThat(index.queueLength(13L)).isEqualTo(1);
+        assertThat(index.queueLength(99L)).isZero();
+    }
+
+    @Test
+    void onReservationChanged_ShouldAddPendingAndDropOtherStatuses() {
+        // Given
+        when(reservationRepository.findAllPendingQueueEntries()).thenReturn(List.of(
+                view(1L, 12L, T0),
+                view(2L, 12L, T0.plusSeconds(10))
+        ));
+        index.rebuild();
+
+        // When
+        index.onReservationChanged(new ReservationChangedEvent(1L, 12L, T0, ReservationStatus.ASSIGNED));
+        index.onReservationChanged(new ReservationChangedEvent(5L, 12L, T0.plusSeconds(30), ReservationStatus.PENDING));
+
+        // Then
+        assertThat(index.position(1L)).isEmpty();
+        assertThat(index.position(2L)).contains(new ReservationQueueIndex.QueuePosition(12L, 1, 2));
+        assertThat(index.position(5L)).contains(new ReservationQueueIndex.QueuePosition(12L, 2, 2));
+    }
+
+    @Test
+    void rebuild_ShouldPickUpChangesMadeOnOtherNodes() {
+        // Given
+        when(reservationRepository.findAllPendingQueueEntries())
+                .thenReturn(List.of(view(1L, 12L, T0), view(2L, 12L, T0.plusSeconds(10))))
+                .thenReturn(List.of(view(2L, 12L, T0.plusSeconds(10)), view(3L, 13L, T0)));
+        index.rebuild();
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertThat(index.position(1L)).isEmpty();
+        assertThat(index.position(2L)).contains(new ReservationQueueIndex.QueuePosition(12L, 1, 1));
+        assertThat(index.queueLength(13L)).isEqualTo(1);
+    }
+
+    private static ReservationQueueView view(Long id, Long bookId, Instant createdAt) {
+        return new ReservationQueueView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getBookId() {
+                return bookId;
+            }
+
+            @Override
+            public Instant getCreatedAt() {
+                return createdAt;
+            }
+        };
+    }
+}
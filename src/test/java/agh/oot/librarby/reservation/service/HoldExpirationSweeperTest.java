@@ -0,0 +1,55 @@
+package agh.oot.librarby.reservation.service;
+
+import agh.oot.librarby.lease.JobLeaseService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HoldExpirationSweeperTest {
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Mock
+    private JobLeaseService jobLeaseService;
+
+    @Test
+    void sweep_ShouldExpireBatchesWhileHoldingTheLease() {
+        // Given
+        HoldExpirationSweeper sweeper = new HoldExpirationSweeper(reservationService, jobLeaseService, 2, Duration.ofMinutes(5));
+        when(jobLeaseService.tryAcquire(eq(HoldExpirationSweeper.LEASE), any())).thenReturn(true);
+        when(reservationService.expireHolds(any(LocalDate.class), eq(2))).thenReturn(2, 1);
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verify(reservationService, times(2)).expireHolds(any(LocalDate.class), eq(2));
+        verify(jobLeaseService).release(HoldExpirationSweeper.LEASE);
+    }
+
+    @Test
+    void sweep_ShouldDoNothing_WhenAnotherNodeHoldsTheLease() {
+        // Given
+        HoldExpirationSweeper sweeper = new HoldExpirationSweeper(reservationService, jobLeaseService, 2, Duration.ofMinutes(5));
+        when(jobLeaseService.tryAcquire(eq(HoldExpirationSweeper.LEASE), any())).thenReturn(false);
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verifyNoInteractions(reservationService);
+    }
+}
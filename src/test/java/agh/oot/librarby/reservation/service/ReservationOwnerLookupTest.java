@@ -0,0 +1,86 @@
+package agh.oot.librarby.reservation.service;
+
+import agh.oot.librarby.reservation.dto.ReservationResponse;
+import agh.oot.librarby.reservation.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationOwnerLookupTest {
+
+    private static final ReservationResponse RESERVATION = new ReservationResponse(1L, 12L, 7L, "PENDING", Instant.EPOCH, null, null);
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    private ReservationOwnerLookup lookup;
+
+    @BeforeEach
+    void setUp() {
+        lookup = new ReservationOwnerLookup(reservationRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readerIdOf_ShouldQueryOncePerRequest() {
+        // Given
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(reservationRepository.findResponseById(1L)).thenReturn(Optional.of(RESERVATION));
+        when(reservationRepository.findResponseById(2L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThat(lookup.readerIdOf(1L)).contains(7L);
+        assertThat(lookup.readerIdOf(1L)).contains(7L);
+        assertThat(lookup.readerIdOf(2L)).isEmpty();
+        assertThat(lookup.readerIdOf(2L)).isEmpty();
+        verify(reservationRepository, times(1)).findResponseById(1L);
+        verify(reservationRepository, times(1)).findResponseById(2L);
+    }
+
+    @Test
+    void find_ShouldReuseTheRowReadForTheOwnershipCheck() {
+        // Given
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(reservationRepository.findResponseById(1L)).thenReturn(Optional.of(RESERVATION));
+
+        // When
+        lookup.readerIdOf(1L);
+        Optional<ReservationResponse> reservation = lookup.find(1L);
+
+        // Then
+        assertThat(reservation).contains(RESERVATION);
+        verify(reservationRepository, times(1)).findResponseById(1L);
+    }
+
+    @Test
+    void readerIdOf_ShouldNotCache_OutsideRequest() {
+        // Given
+        when(reservationRepository.findResponseById(1L)).thenReturn(Optional.of(RESERVATION));
+
+        // When
+        lookup.readerIdOf(1L);
+        lookup.readerIdOf(1L);
+
+        // Then
+        verify(reservationRepository, times(2)).findResponseById(1L);
+    }
+}
@@ -0,0 +1,365 @@
+package agh.oot.librarby.reservation.service;
+
+import agh.oot.librarby.book.model.AgeRating;
+import agh.oot.librarby.book.model.Book;
+import agh.oot.librarby.book.model.BookEdition;
+import agh.oot.librarby.book.model.CopyStatus;
+import agh.oot.librarby.book.model.ExactBookCopy;
+import agh.oot.librarby.book.repository.BookRepository;
+import agh.oot.librarby.book.repository.ExactBookCopyRepository;
+import agh.oot.librarby.cache.BoundedCache;
+import agh.oot.librarby.concurrency.ConflictRetrier;
+import agh.oot.librarby.notification.model.ReservationEventOutbox;
+import agh.oot.librarby.notification.model.ReservationEventType;
+import agh.oot.librarby.notification.repository.ReservationEventOutboxRepository;
+import agh.oot.librarby.reservation.dto.AssignCopyRequest;
+import agh.oot.librarby.reservation.dto.MultipleReservationsResponse;
+import agh.oot.librarby.reservation.dto.ReservationRequest;
+import agh.oot.librarby.reservation.dto.ReservationResponse;
+import agh.oot.librarby.reservation.dto.ReservationSearchRequest;
+import agh.oot.librarby.reservation.event.ReservationChangedEvent;
+import agh.oot.librarby.reservation.model.Reservation;
+import agh.oot.librarby.reservation.model.ReservationStatus;
+import agh.oot.librarby.reservation.queue.ReservationQueueIndex;
+import agh.oot.librarby.reservation.repository.ReservationRepository;
+import agh.oot.librarby.stats.service.CirculationStats;
+import agh.oot.librarby.user.model.Reader;
+import agh.oot.librarby.user.repository.ReaderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationServiceTest {
+
+    @Mock
+    private ReaderRepository readerRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private ExactBookCopyRepository exactBookCopyRepository;
+
+    @Mock
+    private ReservationEventOutboxRepository reservationEventOutboxRepository;
+
+    @Mock
+    private ReservationQueueIndex reservationQueueIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ReservationService reservationService;
+    private Reader reader;
+    private Book book;
+    private ExactBookCopy copy;
+
+    @BeforeEach
+    void setUp() {
+        reservationService = new ReservationService(readerRepository, bookRepository, reservationRepository,
+                new ReservationOwnerLookup(reservationRepository),
+                exactBookCopyRepository, reservationEventOutboxRepository, reservationQueueIndex, eventPublisher,
+                new BoundedCache<>("reservation-idempotency", 100, Duration.ofHours(1)),
+                new ConflictRetrier(TransactionOperations.withoutTransaction(), 3, Duration.ZERO), new CirculationStats(30), 3);
+
+        reader = new Reader("Jan", "Kowalski", 5, LocalDate.of(2000, 1, 1));
+        ReflectionTestUtils.setField(reader, "id", 7L);
+
+        book = new Book("Solaris", Set.of(), AgeRating.ADULT, Set.of());
+        ReflectionTestUtils.setField(book, "id", 12L);
+        BookEdition edition = new BookEdition();
+        edition.setBook(book);
+        copy = new ExactBookCopy(edition, CopyStatus.AVAILABLE);
+    }
+
+    @Test
+    void promoteNextReservation_ShouldAssignCopyToOldestPendingReservation() {
+        // Given
+        Reservation oldest = reservation(1L);
+        oldest.setStatus(ReservationStatus.PENDING);
+        when(reservationRepository.findFirstByBookIdAndStatusOrderByCreatedAtAsc(12L, ReservationStatus.PENDING))
+                .thenReturn(Optional.of(oldest));
+
+        // When
+        Optional<Reservation> promoted = reservationService.promoteNextReservation(copy);
+
+        // Then
+        assertThat(promoted).contains(oldest);
+        assertThat(oldest.getStatus()).isEqualTo(ReservationStatus.ASSIGNED);
+        assertThat(oldest.getAssignedExactBookCopy()).isSameAs(copy);
+        assertThat(oldest.getHoldExpirationDate()).isEqualTo(LocalDate.now().plusDays(3));
+        assertThat(copy.getStatus()).isEqualTo(CopyStatus.RESERVED);
+
+        ArgumentCaptor<ReservationEventOutbox> event = ArgumentCaptor.forClass(ReservationEventOutbox.class);
+        verify(reservationEventOutboxRepository).save(event.capture());
+        assertThat(event.getValue().getEventType()).isEqualTo(ReservationEventType.READY_FOR_PICKUP);
+        verify(eventPublisher).publishEvent(new ReservationChangedEvent(1L, 12L, null, ReservationStatus.ASSIGNED));
+    }
+
+    @Test
+    void promoteNextReservation_ShouldLeaveCopyAvailable_WhenNobodyIsWaiting() {
+        // Given
+        when(reservationRepository.findFirstByBookIdAndStatusOrderByCreatedAtAsc(12L, ReservationStatus.PENDING))
+                .thenReturn(Optional.empty());
+
+        // When
+        Optional<Reservation> promoted = reservationService.promoteNextReservation(copy);
+
+        // Then
+        assertThat(promoted).isEmpty();
+        assertThat(copy.getStatus()).isEqualTo(CopyStatus.AVAILABLE);
+        verify(reservationEventOutboxRepository, never()).save(any());
+    }
+
+    @Test
+    void promoteNextReservation_ShouldSkipCopiesThatAreNotAvailable() {
+        // Given
+        copy.setStatus(CopyStatus.LOST);
+
+        // When & Then
+        assertThat(reservationService.promoteNextReservation(copy)).isEmpty();
+        verifyNoInteractions(reservationRepository);
+    }
+
+    @Test
+    void expireHolds_ShouldExpireHoldAndPassCopyToNextPendingReservation() {
+        // Given
+        LocalDate today = LocalDate.now();
+        Reservation uncollected = reservation(1L);
+        uncollected.setStatus(ReservationStatus.ASSIGNED);
+        uncollected.setAssignedExactBookCopy(copy);
+        uncollected.setHoldExpirationDate(today.minusDays(1));
+        copy.setStatus(CopyStatus.RESERVED);
+
+        Reservation waiting = reservation(2L);
+        waiting.setStatus(ReservationStatus.PENDING);
+
+        when(reservationRepository.findExpiredHolds(eq(today), any())).thenReturn(List.of(uncollected));
+        when(reservationRepository.findFirstByBookIdAndStatusOrderByCreatedAtAsc(12L, ReservationStatus.PENDING))
+                .thenReturn(Optional.of(waiting));
+
+        // When
+        int expired = reservationService.expireHolds(today, 10);
+
+        // Then
+        assertThat(expired).isEqualTo(1);
+        assertThat(uncollected.getStatus()).isEqualTo(ReservationStatus.EXPIRED);
+        assertThat(waiting.getStatus()).isEqualTo(ReservationStatus.ASSIGNED);
+        assertThat(waiting.getAssignedExactBookCopy()).isSameAs(copy);
+        assertThat(copy.getStatus()).isEqualTo(CopyStatus.RESERVED);
+
+        ArgumentCaptor<ReservationEventOutbox> events = ArgumentCaptor.forClass(ReservationEventOutbox.class);
+        verify(reservationEventOutboxRepository, times(2)).save(events.capture());
+        assertThat(events.getAllValues()).extracting(ReservationEventOutbox::getEventType)
+                .containsExactly(ReservationEventType.EXPIRED, ReservationEventType.READY_FOR_PICKUP);
+    }
+
+    @Test
+    void expireHolds_ShouldReleaseCopy_WhenNobodyIsWaiting() {
+        // Given
+        LocalDate today = LocalDate.now();
+        Reservation uncollected = reservation(1L);
+        uncollected.setStatus(ReservationStatus.ASSIGNED);
+        uncollected.setAssignedExactBookCopy(copy);
+        copy.setStatus(CopyStatus.RESERVED);
+
+        when(reservationRepository.findExpiredHolds(eq(today), any())).thenReturn(List.of(uncollected));
+        when(reservationRepository.findFirstByBookIdAndStatusOrderByCreatedAtAsc(12L, ReservationStatus.PENDING))
+                .thenReturn(Optional.empty());
+
+        // When
+        reservationService.expireHolds(today, 10);
+
+        // Then
+        assertThat(uncollected.getStatus()).isEqualTo(ReservationStatus.EXPIRED);
+        assertThat(copy.getStatus()).isEqualTo(CopyStatus.AVAILABLE);
+    }
+
+    @Test
+    void cancelReservation_ShouldReleaseTheCopyOfTheLockedReservation() {
+        // Given
+        Reservation promoted = reservation(1L);
+        promoted.setStatus(ReservationStatus.ASSIGNED);
+        promoted.setAssignedExactBookCopy(copy);
+        copy.setStatus(CopyStatus.RESERVED);
+        when(reservationRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(promoted));
+
+        // When
+        reservationService.cancelReservation(1L);
+
+        // Then
+        assertThat(promoted.getStatus()).isEqualTo(ReservationStatus.CANCELLED);
+        assertThat(copy.getStatus()).isEqualTo(CopyStatus.AVAILABLE);
+        verify(reservationRepository, never()).findById(any());
+    }
+
+    @Test
+    void assignCopyToReservation_ShouldReject_WhenLockedReservationWasAlreadyPromoted() {
+        // Given
+        Reservation promoted = reservation(1L);
+        promoted.setStatus(ReservationStatus.ASSIGNED);
+        when(reservationRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(promoted));
+
+        // When & Then
+        assertThatThrownBy(() -> reservationService.assignCopyToReservation(1L, new AssignCopyRequest(5L, LocalDate.now().plusDays(3))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Only PENDING reservations");
+        verifyNoInteractions(exactBookCopyRepository);
+    }
+
+    @Test
+    void placeReservation_ShouldReplayOriginalResponse_ForSameIdempotencyKey() {
+        // Given
+        when(readerRepository.findById(7L)).thenReturn(Optional.of(reader));
+        when(bookRepository.findById(12L)).thenReturn(Optional.of(book));
+        when(reservationRepository.saveAndFlush(any(Reservation.class))).thenAnswer(invocation -> {
+            Reservation saved = invocation.getArgument(0);
+            ReflectionTestUtils.setField(saved, "id", 1L);
+            return saved;
+        });
+        ReservationRequest request = new ReservationRequest(7L, 12L);
+
+        // When
+        ReservationResponse first = reservationService.placeReservation(request, "tap-1");
+        ReservationResponse retry = reservationService.placeReservation(request, "tap-1");
+
+        // Then
+        assertThat(retry).isEqualTo(first);
+        verify(reservationRepository, times(1)).saveAndFlush(any(Reservation.class));
+        verify(readerRepository, times(1)).findById(7L);
+    }
+
+    @Test
+    void placeReservation_ShouldRejectDuplicate_WhenConstraintFailsInsert() {
+        // Given
+        when(readerRepository.findById(7L)).thenReturn(Optional.of(reader));
+        when(bookRepository.findById(12L)).thenReturn(Optional.of(book));
+        when(reservationRepository.findByReaderAndBookAndStatus(reader, book, ReservationStatus.PENDING))
+                .thenReturn(Optional.empty());
+        when(reservationRepository.saveAndFlush(any(Reservation.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_reservations_active_slot"));
+
+        // When & Then
+        assertThatThrownBy(() -> reservationService.placeReservation(new ReservationRequest(7L, 12L), null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already has a pending reservation");
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void placeReservation_ShouldReturnOriginal_WhenConcurrentRetryWithSameKeyFailsInsert() {
+        // Given
+        ReservationResponse original = new ReservationResponse(1L, 12L, 7L, "PENDING", Instant.now(), null, null);
+        when(readerRepository.findById(7L)).thenReturn(Optional.of(reader));
+        when(bookRepository.findById(12L)).thenReturn(Optional.of(book));
+        when(reservationRepository.findByReaderAndBookAndStatus(reader, book, ReservationStatus.PENDING))
+                .thenReturn(Optional.empty());
+        when(reservationRepository.saveAndFlush(any(Reservation.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_reservations_active_slot"));
+        when(reservationRepository.findPendingResponse(7L, 12L)).thenReturn(Optional.of(original));
+        ReservationRequest request = new ReservationRequest(7L, 12L);
+
+        // When
+        ReservationResponse response = reservationService.placeReservation(request, "tap-1");
+        ReservationResponse retry = reservationService.placeReservation(request, "tap-1");
+
+        // Then
+        assertThat(response).isEqualTo(original);
+        assertThat(retry).isEqualTo(original);
+        verify(reservationRepository, times(1)).saveAndFlush(any(Reservation.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void findReservations_ShouldReturnCursorThatResumesAfterLastItem() {
+        // Given
+        Instant createdAt = Instant.parse("2025-01-01T10:00:00Z");
+        ReservationResponse first = response(1L, createdAt);
+        ReservationResponse second = response(2L, createdAt);
+        when(reservationRepository.search(any(), eq(Sort.Direction.ASC), isNull(), isNull(), eq(2)))
+                .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.ofSize(2), true));
+        when(reservationRepository.search(any(), eq(Sort.Direction.ASC), eq(createdAt), eq(2L), eq(2)))
+                .thenReturn(new SliceImpl<>(List.of(response(3L, createdAt)), PageRequest.ofSize(2), false));
+
+        // When
+        MultipleReservationsResponse firstPage = reservationService.findReservations(
+                new ReservationSearchRequest(null, 12L, null, "ASC", 2, null));
+        MultipleReservationsResponse secondPage = reservationService.findReservations(
+                new ReservationSearchRequest(null, 12L, null, "ASC", 2, firstPage.nextCursor()));
+
+        // Then
+        assertThat(firstPage.reservations()).containsExactly(first, second);
+        assertThat(firstPage.nextCursor()).isNotNull();
+        assertThat(secondPage.reservations()).extracting(ReservationResponse::id).containsExactly(3L);
+        assertThat(secondPage.nextCursor()).isNull();
+    }
+
+    @Test
+    void findReservations_ShouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> reservationService.findReservations(
+                new ReservationSearchRequest(1L, null, null, "ASC", null, "not-a-cursor")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void exportReservations_ShouldPageThroughAllMatches() {
+        // Given
+        Instant createdAt = Instant.parse("2025-01-01T10:00:00Z");
+        when(reservationRepository.search(any(), eq(Sort.Direction.DESC), isNull(), isNull(), anyInt()))
+                .thenReturn(new SliceImpl<>(List.of(response(5L, createdAt)), PageRequest.ofSize(1), true));
+        when(reservationRepository.search(any(), eq(Sort.Direction.DESC), eq(createdAt), eq(5L), anyInt()))
+                .thenReturn(new SliceImpl<>(List.of(response(4L, createdAt)), PageRequest.ofSize(1), false));
+        List<Long> exported = new ArrayList<>();
+
+        // When
+        reservationService.exportReservations(new ReservationSearchRequest(null, null, null, "DESC", null, null),
+                reservation -> exported.add(reservation.id()));
+
+        // Then
+        assertThat(exported).containsExactly(5L, 4L);
+    }
+
+    private static ReservationResponse response(Long id, Instant createdAt) {
+        return new ReservationResponse(id, 12L, 7L, ReservationStatus.PENDING, createdAt, null, null);
+    }
+
+    private Reservation reservation(Long id) {
+        Reservation reservation = new Reservation(book, reader);
+        ReflectionTestUtils.setField(reservation, "id", id);
+        return reservation;
+    }
+}
@@ -0,0 +1,55 @@
+package agh.oot.librarby.stats.service;
+
+import agh.oot.librarby.stats.repository.DailyCirculationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CirculationStatsJobTest {
+
+    @Mock
+    private DailyCirculationRepository dailyCirculationRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void flush_ShouldNotWriteActivityTwice_WhenReadingTheDaysBackFails() {
+        // Given
+        CirculationStats stats = new CirculationStats(7);
+        CirculationStatsJob job = new CirculationStatsJob(stats, dailyCirculationRepository, transactionTemplate);
+        doAnswer(i -> {
+            i.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(dailyCirculationRepository.findByDayGreaterThanEqual(any()))
+                .thenThrow(new QueryTimeoutException("read-back failed"))
+                .thenReturn(List.of());
+        stats.loansOpened(2);
+
+        // When
+        assertThatThrownBy(job::flush).isInstanceOf(QueryTimeoutException.class);
+        job.flush();
+
+        // Then
+        verify(dailyCirculationRepository, times(1)).addCounts(any(LocalDate.class), anyLong(), anyLong(), anyLong(), anyLong());
+        assertThat(stats.unflushedCounts()).isEmpty();
+    }
+}
@@ -0,0 +1,78 @@
+package agh.oot.librarby.stats.service;
+
+import agh.oot.librarby.book.model.CopyStatus;
+import agh.oot.librarby.reservation.model.ReservationStatus;
+import agh.oot.librarby.stats.dto.CirculationStatsResponse;
+import agh.oot.librarby.stats.dto.DailyCirculationResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CirculationStatsTest {
+
+    @Test
+    void snapshot_ShouldReflectTransitionsOnTopOfReconciledCounts() {
+        // Given
+        CirculationStats stats = new CirculationStats(7);
+        stats.reconciled(Map.of(CopyStatus.AVAILABLE, 10L), 3, 1, Map.of(ReservationStatus.PENDING, 2L), Instant.now());
+
+        // When
+        stats.copyStatusChanged(CopyStatus.AVAILABLE, CopyStatus.BORROWED, 2);
+        stats.loansOpened(2);
+        stats.loanReturned(true, true);
+        stats.copyStatusChanged(CopyStatus.BORROWED, CopyStatus.AVAILABLE);
+        stats.reservationStatusChanged(null, ReservationStatus.PENDING);
+        stats.reservationStatusChanged(ReservationStatus.PENDING, ReservationStatus.ASSIGNED);
+        CirculationStatsResponse snapshot = stats.snapshot();
+
+        // Then
+        assertThat(snapshot.copiesByStatus()).containsEntry(CopyStatus.AVAILABLE, 9L).containsEntry(CopyStatus.BORROWED, 1L);
+        assertThat(snapshot.activeLoans()).isEqualTo(4);
+        assertThat(snapshot.overdueLoans()).isZero();
+        assertThat(snapshot.reservationsByStatus()).containsEntry(ReservationStatus.PENDING, 2L).containsEntry(ReservationStatus.ASSIGNED, 1L);
+        assertThat(snapshot.days()).hasSize(7);
+        assertThat(snapshot.days().getLast()).isEqualTo(new DailyCirculationResponse(LocalDate.now(), 2, 1, 1, 1));
+    }
+
+    @Test
+    void copyStatusChanged_ShouldWaitForCommit_WhenCalledInsideATransaction() {
+        // Given
+        CirculationStats stats = new CirculationStats(7);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            stats.copyStatusChanged(null, CopyStatus.AVAILABLE);
+
+            // Then
+            assertThat(stats.snapshot().copiesByStatus()).containsEntry(CopyStatus.AVAILABLE, 0L);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(stats.snapshot().copiesByStatus()).containsEntry(CopyStatus.AVAILABLE, 1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void flushed_ShouldMoveWrittenActivityFromMemoryToStoredDays() {
+        // Given
+        CirculationStats stats = new CirculationStats(7);
+        stats.loansOpened(3);
+        Map<LocalDate, DailyCounts> written = stats.unflushedCounts();
+        stats.loansOpened(1);
+
+        // When
+        stats.flushed(written);
+
+        // Then
+        assertThat(stats.unflushedCounts()).containsEntry(LocalDate.now(), new DailyCounts(1, 0, 0, 0));
+        assertThat(stats.snapshot().days().getLast().checkouts()).isEqualTo(4);
+        stats.storedDaysLoaded(Map.of(LocalDate.now(), new DailyCounts(5, 0, 0, 0)));
+        assertThat(stats.snapshot().days().getLast().checkouts()).isEqualTo(6);
+    }
+}